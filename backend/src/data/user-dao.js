@@ -67,7 +67,8 @@ export async function getAllUsers(search) {
         }
         if (is_admin) {
             const isAdminValue = is_admin === 'true' || is_admin === true;
-            result = result.filter((a) => a.is_admin === isAdminValue);
+            // SQLite returns is_admin as 0/1, so compare as booleans
+            result = result.filter((a) => Boolean(a.is_admin) === isAdminValue);
         }
     }
     return result;
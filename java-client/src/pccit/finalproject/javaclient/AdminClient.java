@@ -1,5 +1,6 @@
 package pccit.finalproject.javaclient;
 
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
@@ -7,25 +8,90 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import java.io.*;
 import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 /**
  * Small HTTP client for the assumed backend API.
+ * <p>
+ * Safe for concurrent use: the login state is an immutable {@link Session} snapshot swapped atomically
+ * by {@link #login} / {@link #logout}. Every request captures one snapshot up front and uses it
+ * throughout, and ending a session disconnects the requests still running under it.
  */
 public class AdminClient {
     private final String baseUrl;
-    private String token;
-    private boolean isAdmin;
-    private String currentUsername; // Store logged-in user's username
+    private final URL base;
+    private final AtomicReference<Session> session = new AtomicReference<>(Session.LOGGED_OUT);
     private final ObjectMapper mapper = new ObjectMapper();
+    private static final int UPLOAD_CHUNK_SIZE = 16 * 1024;
+    /** Per-download limits; -Dadminclient.maxDownloadBytes / -Dadminclient.downloadTimeoutMillis. */
+    public static final int MAX_DOWNLOAD_BYTES = Integer.getInteger("adminclient.maxDownloadBytes", 8 * 1024 * 1024);
+    public static final int DOWNLOAD_TIMEOUT_MILLIS = Integer.getInteger("adminclient.downloadTimeoutMillis", 30_000);
+    private static final int MAX_REDIRECTS = 3;
+    private static final int MAX_RESUMES = 2;
+    private static final int SNIFF_BYTES = 12;
+
+    /** Immutable login state plus the connections currently open under it. */
+    private static final class Session {
+        static final Session LOGGED_OUT = new Session(null, false, null);
+
+        final String token;
+        final boolean admin;
+        final String username; // logged-in user's username
+        private final Set<HttpURLConnection> inFlight = ConcurrentHashMap.newKeySet();
+        private volatile boolean ended;
+
+        Session(String token, boolean admin, String username) {
+            this.token = token;
+            this.admin = admin;
+            this.username = username;
+        }
+
+        boolean isAuthenticated() {
+            return token != null && !token.trim().isEmpty();
+        }
+
+        void track(HttpURLConnection con) throws IOException {
+            inFlight.add(con);
+            // re-check after publishing: either end() sees the connection or we see the flag
+            if (ended) {
+                release(con);
+                throw new IOException("Session ended");
+            }
+        }
+
+        void release(HttpURLConnection con) {
+            inFlight.remove(con);
+            con.disconnect();
+        }
+
+        void end() {
+            if (this == LOGGED_OUT) return; // shared by all anonymous requests
+            ended = true;
+            for (HttpURLConnection con : inFlight) con.disconnect();
+        }
+    }
 
     public AdminClient(String baseUrl) {
         this.baseUrl = baseUrl;
+        URL parsed;
+        try {
+            parsed = new URL(baseUrl);
+        } catch (MalformedURLException e) {
+            parsed = null; // every request to it fails anyway
+        }
+        this.base = parsed;
         // tolerate unknown properties from the backend (e.g. responses that include an "error" field)
         this.mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
     }
@@ -52,6 +118,37 @@ public class AdminClient {
         }
     }
 
+    /** Response of {@code GET /api/users/:id/stats}. */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class UserStats {
+        public int total_posts;
+        public int total_likes;
+    }
+
+    /** Response of {@code GET /api/users/:id} (admin or self). */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class UserDetails {
+        public String id;
+        public String username;
+        public String real_name;
+        public String date_of_birth;
+        public String description;
+        public String avatar_url;
+        public Boolean is_admin;
+        public Boolean is_active;
+    }
+
+    /** Response of {@code GET /api/articles/author/:authorId/count}. */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private static class ArticleCount {
+        public int articleCount;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private static class AvatarUpload {
+        public String avatar_url;
+    }
+
     public LoginResponse login(String username, String password) throws IOException {
         URL url = new URL(baseUrl + "/api/login");
         HttpURLConnection con = (HttpURLConnection) url.openConnection();
@@ -105,9 +202,10 @@ public class AdminClient {
                     else errMsg = "Login failed: no token returned by server";
                     throw new IOException(errMsg);
                 }
-                this.token = resp.token;
-                this.isAdmin = (resp.user != null && Boolean.TRUE.equals(resp.user.effectiveIsAdmin()));
-                this.currentUsername = (resp.user != null) ? resp.user.username : null;
+                Session next = new Session(resp.token,
+                        resp.user != null && Boolean.TRUE.equals(resp.user.effectiveIsAdmin()),
+                        (resp.user != null) ? resp.user.username : null);
+                session.getAndSet(next).end();
                 return resp;
             } else {
                 // Successful status but unable to parse body: likely backend returned an error object
@@ -128,116 +226,391 @@ public class AdminClient {
     }
 
     public List<User> listUsers() throws IOException {
-        HttpURLConnection con = createConn("/api/users?is_active=1", "GET");
-        int code = con.getResponseCode();
+        return listUsers(UserQuery.ACTIVE);
+    }
+
+    /** Users matching {@code query}, filtered on the server. */
+    public List<User> listUsers(UserQuery query) throws IOException {
+        Session s = session.get();
+        HttpURLConnection con = createConn(s, "/api/users" + queryString(query), "GET");
+        int code = responseCode(s, con);
         if (code >= 200 && code < 300) {
             try (InputStream is = con.getInputStream()) {
-                return mapper.readValue(is, new TypeReference<List<User>>() {});
+                List<User> users = mapper.readValue(is, new TypeReference<List<User>>() {});
+                checkCurrent(s);
+                return users;
+            } finally {
+                release(s, con);
+            }
+        } else {
+            try (InputStream is = con.getErrorStream()) {
+                String err = readAll(is);
+                throw new HttpStatusException("Failed to fetch users: " + code + " " + err, code);
+            } finally {
+                release(s, con);
+            }
+        }
+    }
+
+    /**
+     * Stream the active users straight into a columnar {@link UserStore}, one element at a time,
+     * so the full {@code List<User>} never has to exist on the heap.
+     */
+    public UserStore listUsersInto(UserStore store) throws IOException {
+        return listUsersInto(UserQuery.ACTIVE, store);
+    }
+
+    /**
+     * Stream the users matching {@code query} into {@code store}. Interrupting the calling thread aborts
+     * the transfer (the connection is dropped), so a superseded search stops consuming bandwidth.
+     */
+    public UserStore listUsersInto(UserQuery query, UserStore store) throws IOException {
+        Session s = session.get();
+        HttpURLConnection con = createConn(s, "/api/users" + queryString(query), "GET");
+        int code = responseCode(s, con);
+        if (code >= 200 && code < 300) {
+            try (InputStream is = con.getInputStream();
+                 MappingIterator<User> it = mapper.readerFor(User.class).readValues(is)) {
+                int skipped = 0;
+                while (it.hasNextValue()) {
+                    if (Thread.currentThread().isInterrupted()) throw new InterruptedIOException("User listing cancelled");
+                    if (!store.add(it.nextValue())) skipped++;
+                }
+                if (skipped > 0) System.err.println("Skipped " + skipped + " user(s) with an invalid id from " + baseUrl);
+                checkCurrent(s);
+                return store;
+            } finally {
+                release(s, con);
+            }
+        } else {
+            try (InputStream is = con.getErrorStream()) {
+                String err = readAll(is);
+                throw new HttpStatusException("Failed to fetch users: " + code + " " + err, code);
+            } finally {
+                release(s, con);
+            }
+        }
+    }
+
+    private static String queryString(UserQuery query) throws UnsupportedEncodingException {
+        StringBuilder q = new StringBuilder();
+        if (query.getActive() != null) appendParam(q, "is_active", query.getActive() ? "1" : "0");
+        if (query.getAdmin() != null) appendParam(q, "is_admin", query.getAdmin().toString());
+        appendParam(q, "username", query.getUsername());
+        appendParam(q, "real_name", query.getRealName());
+        return q.toString();
+    }
+
+    /**
+     * Stream {@code /api/articles} (optionally filtered/sorted) into a sink, element by element.
+     * Any argument may be null to use the backend default. Article bodies are not retained.
+     */
+    public void listArticles(String search, String authorId, String sortBy, String sortOrder,
+                             Consumer<Article> sink) throws IOException {
+        StringBuilder q = new StringBuilder();
+        appendParam(q, "search", search);
+        appendParam(q, "authorId", authorId);
+        appendParam(q, "sortBy", sortBy);
+        appendParam(q, "sortOrder", sortOrder);
+        Session s = session.get();
+        HttpURLConnection con = createConn(s, "/api/articles" + q, "GET");
+        int code = responseCode(s, con);
+        if (code >= 200 && code < 300) {
+            try (InputStream is = con.getInputStream();
+                 MappingIterator<Article> it = mapper.readerFor(Article.class).readValues(is)) {
+                while (it.hasNextValue()) sink.accept(it.nextValue());
+                checkCurrent(s);
             } finally {
-                con.disconnect();
+                release(s, con);
             }
         } else {
             try (InputStream is = con.getErrorStream()) {
                 String err = readAll(is);
-                throw new IOException("Failed to fetch users: " + code + " " + err);
+                throw new HttpStatusException("Failed to fetch articles: " + code + " " + err, code);
             } finally {
-                con.disconnect();
+                release(s, con);
+            }
+        }
+    }
+
+    /** Fetch one article with its images ({@code GET /api/articles/:articleId}). */
+    public Article.Details getArticleDetails(String articleId) throws IOException {
+        String endpoint = "/api/articles/" + URLEncoder.encode(articleId, StandardCharsets.UTF_8.toString());
+        Session s = session.get();
+        HttpURLConnection con = createConn(s, endpoint, "GET");
+        int code = responseCode(s, con);
+        try {
+            if (code >= 200 && code < 300) {
+                try (InputStream is = con.getInputStream()) {
+                    Article.Details details = mapper.readValue(is, Article.Details.class);
+                    checkCurrent(s);
+                    return details;
+                }
+            } else {
+                try (InputStream is = con.getErrorStream()) {
+                    String err = readAll(is);
+                    throw new HttpStatusException("Failed to fetch article: " + code + " " + err, code);
+                }
+            }
+        } finally {
+            release(s, con);
+        }
+    }
+
+    /** Delete an article by id. If hard==true the article is removed permanently; otherwise it is soft-deleted. */
+    public boolean deleteArticleById(String articleId, boolean hard) throws IOException {
+        String endpoint = "/api/articles/" + URLEncoder.encode(articleId, StandardCharsets.UTF_8.toString()) + (hard ? "?hard=1" : "");
+        Session s = session.get();
+        HttpURLConnection con = createConn(s, endpoint, "DELETE");
+        int code = responseCode(s, con);
+        try {
+            drain((code >= 200 && code < 300) ? con.getInputStream() : con.getErrorStream());
+            return (code >= 200 && code < 300);
+        } finally {
+            release(s, con);
+        }
+    }
+
+    /** Fetch activity stats (active article count, likes received) for a user id. Public endpoint. */
+    public UserStats getUserStats(String id) throws IOException {
+        String endpoint = "/api/users/" + URLEncoder.encode(id, StandardCharsets.UTF_8.toString()) + "/stats";
+        Session s = session.get();
+        HttpURLConnection con = createConn(s, endpoint, "GET");
+        int code = responseCode(s, con);
+        try {
+            if (code >= 200 && code < 300) {
+                try (InputStream is = con.getInputStream()) {
+                    UserStats stats = mapper.readValue(is, UserStats.class);
+                    checkCurrent(s);
+                    return stats;
+                }
+            } else {
+                try (InputStream is = con.getErrorStream()) {
+                    String err = readAll(is);
+                    throw new HttpStatusException("Failed to fetch user stats: " + code + " " + err, code);
+                }
             }
+        } finally {
+            release(s, con);
         }
     }
 
-    /** Fetch avatar bytes by user id. Avatar GET is public per your API, but will include token if present. */
+    /** Fetch the full profile of one user ({@code GET /api/users/:id}). Deleted users yield a 404. */
+    public UserDetails getUserDetails(String id) throws IOException {
+        String endpoint = "/api/users/" + URLEncoder.encode(id, StandardCharsets.UTF_8.toString());
+        Session s = session.get();
+        HttpURLConnection con = createConn(s, endpoint, "GET");
+        int code = responseCode(s, con);
+        try {
+            if (code >= 200 && code < 300) {
+                try (InputStream is = con.getInputStream()) {
+                    UserDetails details = mapper.readValue(is, UserDetails.class);
+                    checkCurrent(s);
+                    return details;
+                }
+            } else {
+                try (InputStream is = con.getErrorStream()) {
+                    String err = readAll(is);
+                    throw new HttpStatusException("Failed to fetch user: " + code + " " + err, code);
+                }
+            }
+        } finally {
+            release(s, con);
+        }
+    }
+
+    /** Number of articles written by a user ({@code GET /api/articles/author/:authorId/count}). Public endpoint. */
+    public int countArticlesByAuthor(String authorId) throws IOException {
+        String endpoint = "/api/articles/author/" + URLEncoder.encode(authorId, StandardCharsets.UTF_8.toString()) + "/count";
+        Session s = session.get();
+        HttpURLConnection con = createConn(s, endpoint, "GET");
+        int code = responseCode(s, con);
+        try {
+            if (code >= 200 && code < 300) {
+                try (InputStream is = con.getInputStream()) {
+                    ArticleCount count = mapper.readValue(is, ArticleCount.class);
+                    checkCurrent(s);
+                    return count.articleCount;
+                }
+            } else {
+                try (InputStream is = con.getErrorStream()) {
+                    String err = readAll(is);
+                    throw new HttpStatusException("Failed to count articles: " + code + " " + err, code);
+                }
+            }
+        } finally {
+            release(s, con);
+        }
+    }
+
+    /**
+     * Fetch avatar bytes by user id. Avatar GET is public per your API, but will include token if present.
+     * Bounded like {@link #fetchBytesFromUrl(String, int)}: at most {@link #MAX_DOWNLOAD_BYTES}, images only,
+     * same-origin redirects only.
+     */
     public byte[] fetchAvatarById(String id) throws IOException {
         String endpoint = "/api/users/" + URLEncoder.encode(id, StandardCharsets.UTF_8.toString()) + "/avatar";
-        HttpURLConnection con = createConn(endpoint, "GET");
-        int code = con.getResponseCode();
+        return download(session.get(), new URL(baseUrl + endpoint), MAX_DOWNLOAD_BYTES, "fetch avatar");
+    }
+
+    /**
+     * Replace a user's avatar ({@code POST /api/users/:id/avatar}, multipart field "avatar"; the backend
+     * accepts JPEG and PNG up to 5 MB). The body is streamed in chunks straight from {@code data} instead of
+     * being buffered by the connection. Returns the new avatar_url.
+     */
+    public String uploadAvatar(String id, String fileName, String contentType, InputStream data) throws IOException {
+        String endpoint = "/api/users/" + URLEncoder.encode(id, StandardCharsets.UTF_8.toString()) + "/avatar";
+        String boundary = "----AdminClientBoundary" + Long.toHexString(System.nanoTime()) + Integer.toHexString(id.hashCode());
+        Session s = session.get();
+        HttpURLConnection con = createConn(s, endpoint, "POST");
+        con.setDoOutput(true);
+        con.setChunkedStreamingMode(UPLOAD_CHUNK_SIZE);
+        con.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + boundary);
+        try (OutputStream out = con.getOutputStream()) {
+            String safeName = fileName.replaceAll("[\"\\r\\n]", "_");
+            out.write(("--" + boundary + "\r\n"
+                    + "Content-Disposition: form-data; name=\"avatar\"; filename=\"" + safeName + "\"\r\n"
+                    + "Content-Type: " + contentType + "\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+            byte[] buf = new byte[UPLOAD_CHUNK_SIZE];
+            int r;
+            while ((r = data.read(buf)) != -1) out.write(buf, 0, r);
+            out.write(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            release(s, con);
+            throw e;
+        }
+        int code = responseCode(s, con);
         try {
             if (code >= 200 && code < 300) {
-                try (InputStream is = con.getInputStream(); ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-                    byte[] buf = new byte[8192];
-                    int r;
-                    while ((r = is.read(buf)) != -1) baos.write(buf, 0, r);
-                    return baos.toByteArray();
-                }
-            } else if (code == 302 || code == 301) {
-                // follow redirect to a URL (simple handling)
-                String loc = con.getHeaderField("Location");
-                if (loc != null) {
-                    URL redirect = new URL(loc);
-                    HttpURLConnection rcon = (HttpURLConnection) redirect.openConnection();
-                    try {
-                        try (InputStream is = rcon.getInputStream(); ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-                            byte[] buf = new byte[8192];
-                            int r;
-                            while ((r = is.read(buf)) != -1) baos.write(buf, 0, r);
-                            return baos.toByteArray();
-                        }
-                    } finally {
-                        rcon.disconnect();
-                    }
+                try (InputStream is = con.getInputStream()) {
+                    return mapper.readValue(is, AvatarUpload.class).avatar_url;
                 }
-                return null;
             } else {
                 try (InputStream is = con.getErrorStream()) {
                     String err = readAll(is);
-                    throw new IOException("Failed to fetch avatar: " + code + " " + err);
+                    throw new HttpStatusException("Failed to upload avatar: " + code + " " + err, code);
                 }
             }
         } finally {
-            con.disconnect();
+            release(s, con);
         }
     }
 
     /** Delete user by id. If hard==true uses mode=hard; otherwise mode=soft. */
     public boolean deleteUserById(String id, boolean hard) throws IOException {
         String endpoint = "/api/users/" + URLEncoder.encode(id, StandardCharsets.UTF_8.toString()) + "?mode=" + (hard ? "hard" : "soft");
-        HttpURLConnection con = createConn(endpoint, "DELETE");
-        int code = con.getResponseCode();
+        Session s = session.get();
+        HttpURLConnection con = createConn(s, endpoint, "DELETE");
+        int code = responseCode(s, con);
         try {
-            InputStream is = (code >= 200 && code < 300) ? con.getInputStream() : con.getErrorStream();
-            if (is != null) {
-                try (InputStream ignored = is) {
-                    // drain/close the stream to free native resources
-                }
-            }
+            drain((code >= 200 && code < 300) ? con.getInputStream() : con.getErrorStream());
             return (code >= 200 && code < 300);
         } finally {
-            con.disconnect();
+            release(s, con);
         }
     }
 
     /** Optionally call server-side logout endpoint to blacklist the token. Returns true on 2xx. */
     public boolean logoutServer() throws IOException {
-        if (token == null) return true; // nothing to do
-        URL url = new URL(baseUrl + "/api/logout");
-        HttpURLConnection con = (HttpURLConnection) url.openConnection();
-        con.setRequestMethod("POST");
-        con.setRequestProperty("Authorization", "Bearer " + token);
+        Session s = session.get();
+        if (!s.isAuthenticated()) return true; // nothing to do
+        HttpURLConnection con = createConn(s, "/api/logout", "POST");
         con.setDoOutput(true);
-        int code = con.getResponseCode();
+        int code = responseCode(s, con);
         try {
-            InputStream is = (code >= 200 && code < 300) ? con.getInputStream() : con.getErrorStream();
-            if (is != null) {
-                try (InputStream ignored = is) {
-                    // ensure closed
-                }
-            }
+            drain((code >= 200 && code < 300) ? con.getInputStream() : con.getErrorStream());
             return (code >= 200 && code < 300);
         } finally {
-            con.disconnect();
+            release(s, con);
+        }
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * Open (and fully drain) a request to the API root so the TCP connection lands in the
+     * HttpURLConnection keep-alive cache before the first real call.
+     */
+    public void preconnect() throws IOException {
+        // anonymous and untracked: this connection is meant to outlive the call
+        HttpURLConnection con = (HttpURLConnection) new URL(baseUrl + "/api").openConnection();
+        int code = con.getResponseCode();
+        InputStream is = (code >= 200 && code < 300) ? con.getInputStream() : con.getErrorStream();
+        // deliberately no disconnect(): reading to EOF and closing hands the socket back for reuse
+        readAll(is);
+    }
+
+    /** Exercise the mapper's (de)serializers for the hot types so their first real use is cheap. */
+    public void warmUpMapper() {
+        try {
+            mapper.readValue("{\"token\":\"t\",\"user\":{\"id\":\"1\",\"username\":\"u\",\"is_admin\":true}}", LoginResponse.class);
+            mapper.readerFor(User.class).readValues("[{\"id\":1,\"username\":\"u\",\"real_name\":\"r\",\"avatar_url\":null}]").readAll();
+            mapper.writeValueAsBytes(new HashMap<String, String>());
+        } catch (IOException e) {
+            System.err.println("Mapper warm-up failed: " + e.getMessage());
         }
     }
 
-    private HttpURLConnection createConn(String endpoint, String method) throws IOException {
+    /** Open a connection authorised by the given session snapshot and register it as in flight. */
+    private HttpURLConnection createConn(Session s, String endpoint, String method) throws IOException {
         URL url = new URL(baseUrl + endpoint);
+        return openTracked(s, url, method);
+    }
+
+    private HttpURLConnection openTracked(Session s, URL url, String method) throws IOException {
         HttpURLConnection con = (HttpURLConnection) url.openConnection();
         con.setRequestMethod(method);
-        if (token != null) {
-            con.setRequestProperty("Authorization", "Bearer " + token);
+        // the token is for our backend only, never for avatar URLs on other hosts
+        if (s.token != null && base != null && sameOrigin(url, base)) {
+            con.setRequestProperty("Authorization", "Bearer " + s.token);
         }
+        s.track(con);
         return con;
     }
 
+    private static void release(Session s, HttpURLConnection con) {
+        s.release(con);
+    }
+
+    /** {@link HttpURLConnection#getResponseCode()} that does not leave the connection registered on failure. */
+    private static int responseCode(Session s, HttpURLConnection con) throws IOException {
+        try {
+            return con.getResponseCode();
+        } catch (IOException e) {
+            release(s, con);
+            throw e;
+        }
+    }
+
+    /**
+     * Fail an authenticated read whose session was ended or replaced while it ran, so callers never
+     * act on data fetched under a logged-out session.
+     */
+    private void checkCurrent(Session s) throws IOException {
+        if (s.isAuthenticated() && session.get() != s) {
+            throw new IOException("Session ended during request");
+        }
+    }
+
+    private static void appendParam(StringBuilder query, String name, String value) throws UnsupportedEncodingException {
+        if (value == null || value.trim().isEmpty()) return;
+        query.append(query.length() == 0 ? '?' : '&')
+                .append(name).append('=').append(URLEncoder.encode(value.trim(), StandardCharsets.UTF_8.toString()));
+    }
+
+    /** Read a response body to EOF and close it, so the connection can go back to the keep-alive pool. */
+    private static void drain(InputStream is) throws IOException {
+        if (is == null) return;
+        try (InputStream in = is) {
+            byte[] buf = new byte[1024];
+            while (in.read(buf) != -1) {
+                // discard
+            }
+        }
+    }
+
     private String readAll(InputStream is) throws IOException {
         if (is == null) return "";
         try (BufferedReader br = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
@@ -249,28 +622,38 @@ public class AdminClient {
     }
 
     public boolean isAdmin() {
-        return isAdmin;
+        return session.get().admin;
     }
 
     public boolean isLoggedIn() {
-        return token != null && !token.trim().isEmpty();
+        return session.get().isAuthenticated();
     }
 
     public String getCurrentUsername() {
-        return currentUsername;
+        return session.get().username;
     }
 
     /**
-     * Local logout (clears token). Optionally, you can call the server logout endpoint before clearing.
+     * Local logout (clears token) and aborts every request still running under the old session.
+     * Optionally, you can call the server logout endpoint before clearing.
      */
     public void logout() {
-        this.token = null;
-        this.isAdmin = false;
-        this.currentUsername = null;
+        session.getAndSet(Session.LOGGED_OUT).end();
     }
 
-    /** Fetch bytes from either an absolute URL or a path relative to baseUrl. */
+    /** Fetch image bytes from either an absolute URL or a path relative to baseUrl, capped at {@link #MAX_DOWNLOAD_BYTES}. */
     public byte[] fetchBytesFromUrl(String urlOrPath) throws IOException {
+        return fetchBytesFromUrl(urlOrPath, MAX_DOWNLOAD_BYTES);
+    }
+
+    /**
+     * Fetch image bytes from either an absolute URL or a path relative to baseUrl. Reading stops with an
+     * IOException as soon as the body exceeds {@code maxBytes} (or declares a larger Content-Length), when
+     * the first bytes are not a JPEG, PNG, GIF or WebP header, or after {@link #DOWNLOAD_TIMEOUT_MILLIS}.
+     * Redirects are followed only within the same origin. A body that breaks off midway is resumed with a
+     * Range request when the server supports it. Interrupting the calling thread aborts the download.
+     */
+    public byte[] fetchBytesFromUrl(String urlOrPath, int maxBytes) throws IOException {
         if (urlOrPath == null || urlOrPath.trim().isEmpty()) return null;
         String trimmed = urlOrPath.trim();
         URL url;
@@ -281,43 +664,198 @@ public class AdminClient {
             String path = trimmed.startsWith("/") ? trimmed : ("/" + trimmed);
             url = new URL(baseUrl + path);
         }
-        HttpURLConnection con = (HttpURLConnection) url.openConnection();
-        con.setRequestMethod("GET");
-        if (token != null) con.setRequestProperty("Authorization", "Bearer " + token);
-        int code = con.getResponseCode();
-        try {
-            if (code >= 200 && code < 300) {
-                try (InputStream is = con.getInputStream(); ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-                    byte[] buf = new byte[8192];
-                    int r;
-                    while ((r = is.read(buf)) != -1) baos.write(buf, 0, r);
-                    return baos.toByteArray();
+        return download(session.get(), url, maxBytes, "fetch resource");
+    }
+
+    /** A non-2xx response from the backend. */
+    public static final class HttpStatusException extends IOException {
+        private static final long serialVersionUID = 1L;
+        private final int status;
+
+        HttpStatusException(String message, int status) {
+            super(message);
+            this.status = status;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+    }
+
+    /**
+     * True if repeating the request cannot help: the backend answered 4xx, or the download is not an image.
+     * Anything else (timeouts, resets, 5xx) may well succeed a little later.
+     */
+    public static boolean isPermanentFailure(IOException e) {
+        if (e instanceof HttpStatusException) {
+            int status = ((HttpStatusException) e).getStatus();
+            return status >= 400 && status < 500;
+        }
+        return e instanceof NotAnImageException;
+    }
+
+    /** A download limit was hit or the content is not an image; retrying or resuming would not help. */
+    private static class DownloadRejectedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        DownloadRejectedException(String message) {
+            super(message);
+        }
+    }
+
+    private static final class NotAnImageException extends DownloadRejectedException {
+        private static final long serialVersionUID = 1L;
+
+        NotAnImageException() {
+            super("Not an image");
+        }
+    }
+
+    /** Body bytes received so far, plus what is needed to resume them with a Range request. */
+    private static final class PartialBody {
+        byte[] buf = new byte[0];
+        int size;
+        String validator; // strong ETag or Last-Modified, sent as If-Range
+        long expected = -1; // total length when the server declared one
+
+        void reset() {
+            size = 0;
+            validator = null;
+        }
+
+        void ensureCapacity(long needed, int maxBytes) throws DownloadRejectedException {
+            if (needed > maxBytes) throw new DownloadRejectedException("Download exceeds the " + maxBytes + " byte limit");
+            if (needed <= buf.length) return;
+            buf = Arrays.copyOf(buf, (int) Math.min(maxBytes, Math.max(needed, Math.max(8192, 2L * buf.length))));
+        }
+
+        byte[] toByteArray() {
+            return size == buf.length ? buf : Arrays.copyOf(buf, size);
+        }
+    }
+
+    /**
+     * The one bounded download path: follows same-origin redirects by hand, caps the body, sniffs the
+     * format from the first bytes and resumes broken transfers with Range / If-Range.
+     */
+    private byte[] download(Session s, URL url, int maxBytes, String what) throws IOException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DOWNLOAD_TIMEOUT_MILLIS);
+        URL origin = url;
+        PartialBody body = new PartialBody();
+        int redirects = 0;
+        int resumes = 0;
+        while (true) {
+            // every wait of every attempt is bounded by what is left of the overall deadline
+            int left = remainingMillis(deadline);
+            HttpURLConnection con = openTracked(s, url, "GET");
+            con.setInstanceFollowRedirects(false);
+            con.setConnectTimeout(left);
+            con.setReadTimeout(left);
+            boolean resuming = body.size > 0;
+            if (resuming) {
+                con.setRequestProperty("Range", "bytes=" + body.size + "-");
+                con.setRequestProperty("If-Range", body.validator);
+            }
+            int code = responseCode(s, con);
+            try {
+                if (code == 301 || code == 302 || code == 303 || code == 307 || code == 308) {
+                    String loc = con.getHeaderField("Location");
+                    if (loc == null) return null;
+                    URL next = new URL(url, loc);
+                    if (!sameOrigin(next, origin)) throw new DownloadRejectedException("Refusing redirect to " + next.getProtocol() + "://" + next.getAuthority());
+                    if (++redirects > MAX_REDIRECTS) throw new DownloadRejectedException("Too many redirects");
+                    url = next;
+                    continue;
                 }
-            } else if (code == 302 || code == 301) {
-                String loc = con.getHeaderField("Location");
-                if (loc != null) {
-                    URL redirect = new URL(loc);
-                    HttpURLConnection rcon = (HttpURLConnection) redirect.openConnection();
-                    try {
-                        try (InputStream is = rcon.getInputStream(); ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-                            byte[] buf = new byte[8192];
-                            int r;
-                            while ((r = is.read(buf)) != -1) baos.write(buf, 0, r);
-                            return baos.toByteArray();
-                        }
-                    } finally {
-                        rcon.disconnect();
+                if (code < 200 || code >= 300) {
+                    try (InputStream is = con.getErrorStream()) {
+                        String err = readAll(is);
+                        throw new HttpStatusException("Failed to " + what + ": " + code + " " + err, code);
                     }
                 }
-                return null;
-            } else {
-                try (InputStream is = con.getErrorStream()) {
-                    String err = readAll(is);
-                    throw new IOException("Failed to fetch resource: " + code + " " + err);
+                if (code == 206) {
+                    String range = con.getHeaderField("Content-Range");
+                    if (!resuming || range == null || !range.startsWith("bytes " + body.size + "-")) {
+                        throw new DownloadRejectedException("Unexpected partial response: " + range);
+                    }
+                } else {
+                    body.reset(); // a full response (the resource changed, or ranges are unsupported) starts over
+                }
+                String etag = con.getHeaderField("ETag");
+                String validator = etag != null && !etag.startsWith("W/") ? etag : con.getHeaderField("Last-Modified");
+                body.validator = "bytes".equals(con.getHeaderField("Accept-Ranges")) || code == 206 ? validator : null;
+
+                long declared = con.getContentLengthLong();
+                body.expected = declared >= 0 ? body.size + declared : -1;
+                if (declared >= 0) body.ensureCapacity(body.expected, maxBytes);
+                try (InputStream is = con.getInputStream()) {
+                    readBody(is, body, maxBytes, deadline);
+                    return body.toByteArray();
+                } catch (DownloadRejectedException e) {
+                    throw e;
+                } catch (IOException e) {
+                    if (Thread.currentThread().isInterrupted()) throw e;
+                    if (body.size == 0 || body.validator == null || ++resumes > MAX_RESUMES || System.nanoTime() > deadline) throw e;
+                    System.err.println("Download of " + url + " broke off after " + body.size + " bytes, resuming: " + e.getMessage());
                 }
+            } finally {
+                release(s, con);
             }
-        } finally {
-            con.disconnect();
         }
     }
+
+    /** Milliseconds until {@code deadline} (at least 1, since 0 means "no timeout"); rejects once it has passed. */
+    private static int remainingMillis(long deadline) throws DownloadRejectedException {
+        long left = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (left <= 0) throw new DownloadRejectedException("Download took longer than " + DOWNLOAD_TIMEOUT_MILLIS + " ms");
+        return (int) Math.min(left, Integer.MAX_VALUE);
+    }
+
+    private static void readBody(InputStream is, PartialBody body, int maxBytes, long deadline) throws IOException {
+        boolean sniffed = body.size >= SNIFF_BYTES;
+        while (true) {
+            if (Thread.currentThread().isInterrupted()) throw new InterruptedIOException("Download cancelled");
+            remainingMillis(deadline);
+            int r;
+            if (body.size == body.buf.length) {
+                // full: probe one byte so a body of exactly maxBytes (or its declared length) still ends cleanly
+                int next = is.read();
+                if (next == -1) break;
+                body.ensureCapacity(body.size + 1L, maxBytes);
+                body.buf[body.size] = (byte) next;
+                r = 1;
+            } else {
+                r = is.read(body.buf, body.size, body.buf.length - body.size);
+                if (r == -1) break;
+            }
+            body.size += r;
+            if (!sniffed && body.size >= SNIFF_BYTES) {
+                checkImageHeader(body.buf);
+                sniffed = true;
+            }
+        }
+        if (!sniffed && body.size > 0) checkImageHeader(Arrays.copyOf(body.buf, SNIFF_BYTES));
+        // HttpURLConnection reports a connection dropped mid-body as a clean end of stream
+        if (body.expected >= 0 && body.size < body.expected) {
+            throw new EOFException("Connection closed after " + body.size + " of " + body.expected + " bytes");
+        }
+    }
+
+    /** Reject anything that does not start like a JPEG, PNG, GIF or WebP file (e.g. an HTML error page). */
+    private static void checkImageHeader(byte[] b) throws DownloadRejectedException {
+        boolean jpeg = (b[0] & 0xFF) == 0xFF && (b[1] & 0xFF) == 0xD8 && (b[2] & 0xFF) == 0xFF;
+        boolean png = (b[0] & 0xFF) == 0x89 && b[1] == 'P' && b[2] == 'N' && b[3] == 'G';
+        boolean gif = b[0] == 'G' && b[1] == 'I' && b[2] == 'F' && b[3] == '8';
+        boolean webp = b[0] == 'R' && b[1] == 'I' && b[2] == 'F' && b[3] == 'F' && b[8] == 'W' && b[9] == 'E' && b[10] == 'B' && b[11] == 'P';
+        if (!(jpeg || png || gif || webp)) throw new NotAnImageException();
+    }
+
+    private static boolean sameOrigin(URL a, URL b) {
+        return a.getProtocol().equalsIgnoreCase(b.getProtocol()) && a.getHost().equalsIgnoreCase(b.getHost())
+                && portOf(a) == portOf(b);
+    }
+
+    private static int portOf(URL u) {
+        return u.getPort() != -1 ? u.getPort() : u.getDefaultPort();
+    }
 }
@@ -2,9 +2,12 @@ package pccit.finalproject.javaclient;
 
 import javax.imageio.ImageIO;
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
 import javax.swing.border.EmptyBorder;
+import javax.swing.table.TableColumn;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
@@ -13,13 +16,19 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 import java.awt.Desktop;
 
 public class AdminFrame extends JFrame {
-    private final AdminClient client;
+    private final BackendGroup backends;
 
     private final JTextField usernameField = new JTextField(15);
     private final JPasswordField passwordField = new JPasswordField(15);
@@ -28,23 +37,56 @@ public class AdminFrame extends JFrame {
     private final JButton deleteButton = new JButton("Delete User");
     private final JButton refreshButton = new JButton("Refresh");
 
-    private final UserTableModel tableModel = new UserTableModel();
-    private final JTable userTable = new JTable(tableModel);
+    // server-side search; typing restarts the debounce timer, Enter searches immediately
+    private final JTextField searchField = new JTextField(16);
+    private final JComboBox<String> searchFieldBox = new JComboBox<>(new String[] {"Username", "Real name"});
+    private final Timer searchTimer = new Timer(300, e -> runSearch());
+    private final UserQueryCache queryCache = new UserQueryCache(16);
+    // the running login/refresh/search; a new one cancels it
+    private SwingWorker<Void, ?> loadWorker;
+
+    private final UserTableModel tableModel;
+    private final JTable userTable;
+    private final UserRowSorter rowSorter;
+    private final AvatarThumbnailLoader thumbnailLoader;
+    private final UserStatsLoader statsLoader;
+    private final ArticleModerationPanel articlePanel;
+    private final AvatarNormalizationPanel avatarPanel;
+    private final AuditJournal audit;
 
     // Inline profile UI (avatar + name)
     private final JPanel profilePanel = new JPanel(new BorderLayout());
     private final JLabel avatarLabel = new JLabel();
     private final JLabel nameLabel = new JLabel("No user selected", SwingConstants.CENTER);
+    private final ProfileInspector inspector = new ProfileInspector();
     private final int thumbSize = 100;
 
     private final JLabel statusLabel = new JLabel("Not logged in");
     private final JLabel userCountLabel = new JLabel("");
+    // shown while the table is sorted by a stats column whose values are not all loaded yet
+    private final JLabel sortStateLabel = new JLabel("");
 
-    public AdminFrame(AdminClient client) {
+    // set when a login starts so the first user fetch can report login-to-rows time
+    private long loginStartedNanos;
+    private boolean auditFailureShown;
+
+    public AdminFrame(BackendGroup backends, AuditJournal audit) {
         super("Admin Client");
-        this.client = client;
+        this.backends = backends;
+        this.audit = audit;
+        this.tableModel = new UserTableModel(backends.names());
+        this.userTable = new JTable(tableModel);
+        this.rowSorter = new UserRowSorter(tableModel);
+        this.thumbnailLoader = new AvatarThumbnailLoader(backends, tableModel, 32);
+        this.statsLoader = new UserStatsLoader(backends, tableModel);
+        this.articlePanel = new ArticleModerationPanel(backends, audit);
+        // replaced avatars get new URLs: drop cached thumbnails and listings, then reload the rows
+        this.avatarPanel = new AvatarNormalizationPanel(backends, audit, () -> {
+            thumbnailLoader.clear();
+            fetchUsers();
+        });
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        setSize(800, 500);
+        setSize(960, 560);
         setLocationRelativeTo(null);
 
         createProfileComponents();
@@ -57,8 +99,11 @@ public class AdminFrame extends JFrame {
         avatarLabel.setHorizontalAlignment(SwingConstants.CENTER);
         avatarLabel.setPreferredSize(new Dimension(thumbSize, thumbSize));
         nameLabel.setBorder(BorderFactory.createEmptyBorder(8, 8, 8, 8));
-        profilePanel.add(avatarLabel, BorderLayout.CENTER);
-        profilePanel.add(nameLabel, BorderLayout.SOUTH);
+        JPanel header = new JPanel(new BorderLayout());
+        header.add(avatarLabel, BorderLayout.CENTER);
+        header.add(nameLabel, BorderLayout.SOUTH);
+        profilePanel.add(header, BorderLayout.NORTH);
+        profilePanel.add(inspector, BorderLayout.CENTER);
     }
 
     private void createLayout() {
@@ -73,14 +118,22 @@ public class AdminFrame extends JFrame {
 
         JScrollPane tableScroll = new JScrollPane(userTable);
         userTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        // click a header to sort, click another to make it the primary key (previous keys break ties)
+        userTable.setRowSorter(rowSorter);
+        configureAvatarColumn(tableScroll);
 
         JPanel leftPanel = new JPanel(new BorderLayout());
+        JPanel searchRow = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        searchRow.add(new JLabel("Search:"));
+        searchRow.add(searchField);
+        searchRow.add(searchFieldBox);
+        leftPanel.add(searchRow, BorderLayout.NORTH);
         leftPanel.add(tableScroll, BorderLayout.CENTER);
         JPanel leftBottom = new JPanel(new FlowLayout(FlowLayout.LEFT));
         leftBottom.add(deleteButton);
         leftPanel.add(leftBottom, BorderLayout.SOUTH);
 
-        profilePanel.setPreferredSize(new Dimension(220, 200));
+        profilePanel.setPreferredSize(new Dimension(280, 200));
 
         JSplitPane split = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, leftPanel, profilePanel);
         split.setResizeWeight(0.7);
@@ -93,6 +146,7 @@ public class AdminFrame extends JFrame {
         userCountLabel.setMinimumSize(new Dimension(150, 20));
         
         JPanel userCountPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 0));
+        userCountPanel.add(sortStateLabel);
         userCountPanel.add(userCountLabel);
         bottom.add(userCountPanel, BorderLayout.EAST);
         
@@ -103,16 +157,51 @@ public class AdminFrame extends JFrame {
         content.setBorder(new EmptyBorder(12, 12, 12, 12));
         content.setLayout(new BorderLayout(8,10));
         content.add(top, BorderLayout.NORTH);
-        content.add(split, BorderLayout.CENTER);
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab("Users", split);
+        tabs.addTab("Articles", articlePanel);
+        tabs.addTab("Avatars", avatarPanel);
+        content.add(tabs, BorderLayout.CENTER);
         content.add(bottom, BorderLayout.SOUTH);
     }
 
+    private void configureAvatarColumn(JScrollPane tableScroll) {
+        int size = thumbnailLoader.getThumbSize();
+        userTable.setRowHeight(size + 4);
+        TableColumn avatarColumn = userTable.getColumnModel().getColumn(UserTableModel.AVATAR_COLUMN);
+        avatarColumn.setCellRenderer(new AvatarCellRenderer(thumbnailLoader));
+        avatarColumn.setPreferredWidth(size + 12);
+        avatarColumn.setMaxWidth(size + 12);
+        // thumbnails are only requested for rows inside the viewport
+        VisibleRowTracker tracker = new VisibleRowTracker(userTable, tableScroll.getViewport());
+        tracker.addListener(thumbnailLoader);
+        // stats are fetched for visible rows plus a short margin first, the rest by a background fill
+        tracker.addListener(statsLoader, UserStatsLoader.PREFETCH_ROWS);
+        statsLoader.setProgressListener(this::updateSortState);
+        rowSorter.addRowSorterListener(e -> updateSortState());
+    }
+
     private void attachListeners() {
         loginButton.addActionListener(e -> doLogin());
         logoutButton.addActionListener(e -> doLogout());
         deleteButton.addActionListener(e -> doDeleteSelectedUser());
         refreshButton.addActionListener(e -> fetchUsers());
 
+        searchTimer.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override public void insertUpdate(DocumentEvent e) { searchTimer.restart(); }
+            @Override public void removeUpdate(DocumentEvent e) { searchTimer.restart(); }
+            @Override public void changedUpdate(DocumentEvent e) { searchTimer.restart(); }
+        });
+        searchField.addActionListener(e -> {
+            searchTimer.stop();
+            runSearch();
+        });
+        searchFieldBox.addActionListener(e -> {
+            searchTimer.stop();
+            if (!searchField.getText().trim().isEmpty()) runSearch();
+        });
+
         userTable.getSelectionModel().addListSelectionListener(new ListSelectionListener() {
             @Override
             public void valueChanged(ListSelectionEvent e) {
@@ -132,108 +221,186 @@ public class AdminFrame extends JFrame {
         }
         setStatus("Logging in...");
         setControlsEnabled(false);
+        loginStartedNanos = System.nanoTime();
+        queryCache.clear();
 
-        SwingWorker<AdminClient.LoginResponse, Void> worker = new SwingWorker<AdminClient.LoginResponse, Void>() {
-            private Exception exc;
-            @Override
-            protected AdminClient.LoginResponse doInBackground() throws Exception {
-                try {
-                    return client.login(user, pass);
-                } catch (Exception e) {
-                    this.exc = e;
-                    return null;
-                }
-            }
+        loadUsers(user, pass, false);
+    }
+
+    private void fetchUsers() {
+        setControlsEnabled(false);
+        queryCache.clear();
+        loadUsers(null, null, false);
+    }
+
+    /** Re-run the user listing with the current search text; cancels a search still in flight. */
+    private void runSearch() {
+        if (!searchField.isEnabled() || !backends.isAnyLoggedIn()) return; // logged out or logging in
+        setStatus("Searching...");
+        loadUsers(null, null, true);
+    }
+
+    private UserQuery currentQuery() {
+        String text = searchField.getText();
+        return searchFieldBox.getSelectedIndex() == 0 ? UserQuery.ACTIVE.withUsername(text) : UserQuery.ACTIVE.withRealName(text);
+    }
+
+    /** Outcome of one backend's login + fetch pipeline. */
+    private static final class BackendResult {
+        final int source;
+        UserStore users;
+        Exception error;
+
+        BackendResult(int source) { this.source = source; }
+    }
+
+    /**
+     * Log in to (when credentials are given) and fetch users from every backend in parallel. Each backend
+     * runs its own pipeline, and its rows are appended to the merged table as soon as they arrive, so a
+     * slow region never holds back the others. Backends whose login fails are logged out and reported at
+     * the end. The search box filters on the server; a {@code search} that fails keeps the sessions. The
+     * previous rows stay on screen until the first backend answers.
+     */
+    private void loadUsers(final String user, final String pass, final boolean search) {
+        if (loadWorker != null) loadWorker.cancel(true); // drops the superseded listing mid-stream
+        final int total = backends.size();
+        final UserQuery query = currentQuery();
+
+        SwingWorker<Void, BackendResult> worker = new SwingWorker<Void, BackendResult>() {
+            private final List<BackendResult> failures = new ArrayList<>();
+            private int loaded;
+            private boolean replaced;
 
             @Override
-            protected void done() {
-                setControlsEnabled(true);
-                if (exc != null) {
-                    JOptionPane.showMessageDialog(AdminFrame.this, "Login failed: " + exc.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-                    client.logout();
-                    updateControlsForLoggedOut();
-                    setStatus("Not logged in");
-                    return;
-                }
+            protected Void doInBackground() throws Exception {
+                ExecutorService pool = Executors.newFixedThreadPool(total);
                 try {
-                    AdminClient.LoginResponse resp = get();
-                    if (resp == null) {
-                        JOptionPane.showMessageDialog(AdminFrame.this, "Empty response from server", "Error", JOptionPane.ERROR_MESSAGE);
-                        client.logout();
-                        updateControlsForLoggedOut();
-                        setStatus("Not logged in");
-                        return;
-                    }
-                    boolean isAdmin = client.isAdmin();
-                    if (!isAdmin) {
-                        JOptionPane.showMessageDialog(AdminFrame.this, "Authenticated but not an admin", "Access denied", JOptionPane.ERROR_MESSAGE);
-                        client.logout();
-                        updateControlsForLoggedOut();
-                        setStatus("Not logged in");
-                        return;
+                    CompletionService<BackendResult> results = new ExecutorCompletionService<>(pool);
+                    int submitted = 0;
+                    for (int i = 0; i < total; i++) {
+                        final int source = i;
+                        final AdminClient client = backends.clientFor(source);
+                        if (user == null && !client.isLoggedIn()) continue; // refresh only touches live sessions
+                        results.submit(() -> loadBackend(source, client, user, pass, query));
+                        submitted++;
                     }
-                    setStatus("Fetching users...");
-                    fetchUsers();
-                } catch (Exception ex) {
-                    JOptionPane.showMessageDialog(AdminFrame.this, "Login processing error: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-                    client.logout();
-                    updateControlsForLoggedOut();
-                    setStatus("Not logged in");
+                    for (int i = 0; i < submitted; i++) publish(results.take().get());
+                } finally {
+                    pool.shutdownNow();
                 }
+                return null;
             }
-        };
-        worker.execute();
-    }
 
-    private void fetchUsers() {
-        setControlsEnabled(false);
-        SwingWorker<List<User>, Void> worker = new SwingWorker<List<User>, Void>() {
-            private Exception exc;
             @Override
-            protected List<User> doInBackground() throws Exception {
-                try {
-                    return client.listUsers();
-                } catch (IOException e) {
-                    this.exc = e;
-                    return null;
+            protected void process(List<BackendResult> chunks) {
+                if (isCancelled()) return;
+                for (BackendResult r : chunks) {
+                    if (r.error != null) {
+                        failures.add(r);
+                        continue;
+                    }
+                    loaded++;
+                    if (loginStartedNanos != 0) {
+                        StartupWarmup.log("login-to-first-rows took " + (System.nanoTime() - loginStartedNanos) / 1_000_000 + " ms");
+                        loginStartedNanos = 0;
+                    }
+                    if (!replaced) {
+                        tableModel.setStore(new UserStore());
+                        replaced = true;
+                    }
+                    tableModel.appendStore(r.users, r.source);
+                    setUserCount(tableModel.getRowCount());
+                    if (backends.isMulti()) setStatus("Loaded " + loaded + "/" + total + " backends...");
                 }
             }
 
             @Override
             protected void done() {
+                if (isCancelled()) return; // a newer load owns the table now
                 setControlsEnabled(true);
-                if (exc != null) {
-                    JOptionPane.showMessageDialog(AdminFrame.this, "Failed to load users: " + exc.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-                    client.logout();
-                    updateControlsForLoggedOut();
-                    setStatus("Not logged in");
-                    return;
-                }
                 try {
-                    List<User> users = get();
-                    // Debug print: show all users received from backend
-                    System.out.println("Fetched users:");
-                    for (User u : users) {
-                        System.out.println("  " + u.getUsername());
-                    }
-                    tableModel.setUsers(users);
-                    tableModel.fireTableDataChanged(); // Force table refresh
-                    setStatus("Logged in as admin");
-                    setUserCount(users.size());
-                    updateControlsForLoggedIn();
+                    get();
                 } catch (Exception e) {
-                    JOptionPane.showMessageDialog(AdminFrame.this, "Error processing users: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-                    client.logout();
+                    failures.add(errorResult(e));
+                }
+                if (search && loaded == 0) {
+                    setStatus("Search failed: " + describeFailures(failures));
+                    return;
+                }
+                if (loaded == 0) {
+                    String action = (user != null) ? "Login failed" : "Failed to load users";
+                    JOptionPane.showMessageDialog(AdminFrame.this, action + ": " + describeFailures(failures), "Error", JOptionPane.ERROR_MESSAGE);
+                    backends.logoutAll();
                     updateControlsForLoggedOut();
                     setStatus("Not logged in");
+                    return;
+                }
+                if (!failures.isEmpty()) {
+                    JOptionPane.showMessageDialog(AdminFrame.this, "Some backends are unavailable: " + describeFailures(failures), "Partial results", JOptionPane.WARNING_MESSAGE);
                 }
+                updateControlsForLoggedIn();
+                if (!query.isUnfiltered()) setStatus(tableModel.getRowCount() + " users match");
             }
         };
+        loadWorker = worker;
         worker.execute();
     }
 
+    /** One backend's pipeline; runs on a pool thread and never throws. */
+    private BackendResult loadBackend(int source, AdminClient client, String user, String pass, UserQuery query) {
+        BackendResult r = new BackendResult(source);
+        String backendName = backends.get(source).getName();
+        boolean authenticated = false;
+        try {
+            RequestScheduler scheduler = RequestScheduler.shared();
+            if (user != null) {
+                AdminClient.LoginResponse resp = scheduler.call(client, RequestScheduler.Priority.INTERACTIVE, () -> client.login(user, pass));
+                if (resp == null) throw new IOException("Empty response from server");
+                if (!client.isAdmin()) throw new IOException("Authenticated but not an admin");
+                authenticated = true;
+                audit.record(AuditJournal.ACTION_LOGIN, user, backendName, user, "", true);
+            }
+            UserStore cached = user == null ? queryCache.get(source, query) : null;
+            if (cached != null) {
+                r.users = cached;
+                return r;
+            }
+            r.users = scheduler.call(client, RequestScheduler.Priority.INTERACTIVE, () -> client.listUsersInto(query, new UserStore()));
+            // whole directories are not cached: they are large and refreshed explicitly
+            if (!query.isUnfiltered()) queryCache.put(source, query, r.users);
+        } catch (Exception e) {
+            r.error = e;
+            if (user != null && !authenticated) audit.record(AuditJournal.ACTION_LOGIN, user, backendName, user, e.getMessage(), false);
+            // only a failed login ends the session; a failed or superseded listing keeps it
+            if (user != null) client.logout();
+        }
+        return r;
+    }
+
+    private BackendResult errorResult(Exception e) {
+        BackendResult r = new BackendResult(-1);
+        r.error = e;
+        return r;
+    }
+
+    private String describeFailures(List<BackendResult> failures) {
+        if (failures.isEmpty()) return "no backend responded";
+        if (!backends.isMulti() && failures.size() == 1) return failures.get(0).error.getMessage();
+        StringBuilder sb = new StringBuilder();
+        for (BackendResult r : failures) {
+            sb.append("\n  ").append(r.source >= 0 ? backends.get(r.source).getName() : "client").append(": ").append(r.error.getMessage());
+        }
+        return sb.toString();
+    }
+
+    /** Model index of the selected row (the view may be sorted), or -1. */
+    private int selectedModelRow() {
+        int viewRow = userTable.getSelectedRow();
+        return viewRow < 0 ? -1 : userTable.convertRowIndexToModel(viewRow);
+    }
+
     private void onSelectionChanged() {
-        int row = userTable.getSelectedRow();
+        int row = selectedModelRow();
         if (row < 0) {
             deleteButton.setEnabled(false);
             showPlaceholder();
@@ -242,58 +409,24 @@ public class AdminFrame extends JFrame {
         }
         deleteButton.setEnabled(true);
         User u = tableModel.getUserAt(row);
+        // avatars are served by the backend the user belongs to
+        final AdminClient client = backends.clientFor(tableModel.getSourceAt(row));
         // prefer realName if present
         final String nameToShow = u.getRealName() != null && !u.getRealName().isEmpty() ? u.getRealName() : u.getUsername();
         showUser(nameToShow, null); // show name while loading image
 
-        // Load avatar asynchronously: prefer avatarUrl from the user object if available,
-        // otherwise fall back to the API endpoint /api/users/{id}/avatar
-        setStatus("Loading avatar...");
-        SwingWorker<byte[], Void> worker = new SwingWorker<byte[], Void>() {
-            private Exception exc;
-            @Override
-            protected byte[] doInBackground() throws Exception {
-                try {
-                    String avatarUrl = u.getAvatarUrl();
-                    if (avatarUrl != null && !avatarUrl.trim().isEmpty()) {
-                        System.out.println("Fetching avatar from avatarUrl: " + avatarUrl);
-                        return client.fetchBytesFromUrl(avatarUrl);
-                    } else {
-                        System.out.println("No avatarUrl found for user " + u.getId() + "; using /avatar endpoint");
-                        return client.fetchAvatarById(u.getId());
-                    }
-                } catch (IOException e) {
-                    this.exc = e;
-                    return null;
-                }
-            }
-
-            @Override
-            protected void done() {
-                try {
-                    if (exc != null) {
-                        JOptionPane.showMessageDialog(AdminFrame.this, "Error loading avatar: " + exc.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-                        // keep the selected name visible even if loading failed
-                        showUser(nameToShow, null);
-                    } else {
-                        byte[] imageData = get();
-                        if (imageData != null) {
-                            // pass the selected name so it doesn't become "No user selected"
-                            showUser(nameToShow, imageData);
-                        } else {
-                            // no image bytes — keep the selected name and show default avatar
-                            showUser(nameToShow, null);
-                        }
-                    }
-                } catch (Exception e) {
-                    JOptionPane.showMessageDialog(AdminFrame.this, "Error displaying avatar: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-                    showUser(nameToShow, null);
-                } finally {
-                    setStatus("Logged in as admin"); // Always reset status after avatar load
-                }
+        // Profile, stats, article count, recent articles and avatar are fetched together; selecting
+        // another user cancels whatever is still running for this one
+        setStatus("Loading profile...");
+        inspector.inspect(client, u, (imageData, exc) -> {
+            if (exc != null && !(exc instanceof TimeoutException)) {
+                JOptionPane.showMessageDialog(AdminFrame.this, "Error loading avatar: " + exc.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
             }
-        };
-        worker.execute();
+            // keep the selected name visible; null bytes show the default avatar
+            showUser(nameToShow, imageData);
+            // a slow avatar host is not worth a modal dialog: leave the placeholder and say so in the status bar
+            setStatus(exc instanceof TimeoutException ? "Avatar timed out" : "Logged in as admin"); // Always reset status after avatar load
+        });
     }
 
     private void showUser(String name, byte[] imageData) {
@@ -366,12 +499,41 @@ public class AdminFrame extends JFrame {
     private void showPlaceholder() {
         nameLabel.setText("No user selected");
         avatarLabel.setIcon(null);
+        inspector.clear();
     }
 
     private void setStatus(String message) {
         statusLabel.setText(message);
     }
 
+    /**
+     * Until the background stats fill is done, sorting by Articles/Likes only orders the users loaded so
+     * far: say so, and keep the sorter from re-sorting under the viewport as each batch arrives.
+     */
+    private void updateSortState() {
+        boolean complete = statsLoader.isComplete();
+        rowSorter.setHoldStatsResort(!complete);
+        boolean byStats = false;
+        for (RowSorter.SortKey k : rowSorter.getSortKeys()) {
+            int column = k.getColumn();
+            if (column == UserTableModel.ARTICLES_COLUMN || column == UserTableModel.LIKES_COLUMN) byStats = true;
+        }
+        sortStateLabel.setText(byStats && !complete
+                ? "Partial order: stats for " + statsLoader.filledRows() + "/" + tableModel.getRowCount() + " users"
+                : "");
+    }
+
+    /** Tell the admin (once) that their actions are not being journaled. */
+    private void warnIfAuditUnavailable() {
+        String failure = audit.getFailure();
+        if (failure == null || auditFailureShown) return;
+        auditFailureShown = true;
+        JOptionPane.showMessageDialog(this,
+                "Admin actions are not being recorded: the audit journal " + failure,
+                "Audit Journal Unavailable",
+                JOptionPane.WARNING_MESSAGE);
+    }
+
     private void setUserCount(int count) {
         userCountLabel.setText("Users loaded: " + count);
     }
@@ -384,13 +546,14 @@ public class AdminFrame extends JFrame {
         usernameField.setEnabled(enabled);
         passwordField.setEnabled(enabled);
         // Only enable login if not logged in
-        loginButton.setEnabled(enabled && !client.isLoggedIn());
+        boolean loggedIn = backends.isAnyLoggedIn();
+        loginButton.setEnabled(enabled && !loggedIn);
         // Only enable logout if logged in
-        logoutButton.setEnabled(client.isLoggedIn());
+        logoutButton.setEnabled(loggedIn);
         // Delete and refresh only enabled if logged in
-        deleteButton.setEnabled(enabled && client.isLoggedIn() && userTable.getSelectedRow() >= 0);
-        refreshButton.setEnabled(enabled && client.isLoggedIn());
-        userTable.setEnabled(enabled && client.isLoggedIn());
+        deleteButton.setEnabled(enabled && loggedIn && userTable.getSelectedRow() >= 0);
+        refreshButton.setEnabled(enabled && loggedIn);
+        userTable.setEnabled(enabled && loggedIn);
     }
 
     private void updateControlsForLoggedOut() {
@@ -401,6 +564,15 @@ public class AdminFrame extends JFrame {
         deleteButton.setEnabled(false);
         refreshButton.setEnabled(false);
         userTable.setEnabled(false);
+        searchField.setText("");
+        searchTimer.stop();
+        searchField.setEnabled(false);
+        searchFieldBox.setEnabled(false);
+        queryCache.clear();
+        thumbnailLoader.clear();
+        statsLoader.clear();
+        articlePanel.setLoggedIn(false);
+        avatarPanel.setLoggedIn(false);
         tableModel.setUsers(Collections.emptyList()); // Clear the table on logout
         tableModel.fireTableDataChanged(); // Ensure table view is refreshed and cleared
         showPlaceholder();
@@ -416,7 +588,12 @@ public class AdminFrame extends JFrame {
         deleteButton.setEnabled(userTable.getSelectedRow() >= 0);
         refreshButton.setEnabled(true);
         userTable.setEnabled(true);
+        searchField.setEnabled(true);
+        searchFieldBox.setEnabled(true);
+        articlePanel.setLoggedIn(true);
+        avatarPanel.setLoggedIn(true);
         setStatus("Logged in as admin");
+        warnIfAuditUnavailable();
     }
 
     private void doLogout() {
@@ -426,13 +603,18 @@ public class AdminFrame extends JFrame {
         }
         setStatus("Logging out...");
         setControlsEnabled(false);
+        // capture who is logged in where before the sessions are dropped
+        final List<String[]> sessions = new ArrayList<>();
+        for (BackendGroup.Backend b : backends.all()) {
+            if (b.getClient().isLoggedIn()) sessions.add(new String[] {b.getName(), b.getClient().getCurrentUsername()});
+        }
 
         SwingWorker<Void, Void> worker = new SwingWorker<Void, Void>() {
             private Exception exc;
             @Override
             protected Void doInBackground() throws Exception {
                 try {
-                    client.logout();
+                    backends.logoutAll();
                 } catch (Exception e) {
                     this.exc = e;
                 }
@@ -442,6 +624,9 @@ public class AdminFrame extends JFrame {
             @Override
             protected void done() {
                 setControlsEnabled(true);
+                for (String[] session : sessions) {
+                    audit.record(AuditJournal.ACTION_LOGOUT, session[1], session[0], session[1], exc == null ? "" : exc.getMessage(), exc == null);
+                }
                 if (exc != null) {
                     JOptionPane.showMessageDialog(AdminFrame.this, "Logout failed: " + exc.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
                     setStatus("Logged in as admin");
@@ -454,11 +639,14 @@ public class AdminFrame extends JFrame {
     }
 
     private void doDeleteSelectedUser() {
-        int row = userTable.getSelectedRow();
+        int row = selectedModelRow();
         if (row < 0) {
             return; // No user selected
         }
         User userToDelete = tableModel.getUserAt(row);
+        // route the delete to the backend that owns this user
+        final AdminClient client = backends.clientFor(tableModel.getSourceAt(row));
+        final String backendName = tableModel.getSourceName(tableModel.getSourceAt(row));
 
         // Prevent admin from deleting themselves
         String currentUsername = client.getCurrentUsername();
@@ -485,22 +673,28 @@ public class AdminFrame extends JFrame {
         boolean hardDelete = false; // Use hard delete if admin
 
         SwingWorker<Void, Void> worker = new SwingWorker<Void, Void>() {
-            private Exception exc;
+            private String error; // null on success
             @Override
             protected Void doInBackground() throws Exception {
                 try {
-                    client.deleteUserById(userToDelete.getId(), hardDelete);
+                    boolean ok = RequestScheduler.shared().call(client, RequestScheduler.Priority.INTERACTIVE,
+                            () -> client.deleteUserById(userToDelete.getId(), hardDelete));
+                    if (!ok) error = "rejected";
                 } catch (Exception e) {
-                    this.exc = e;
+                    error = e.getMessage();
                 }
+                audit.record(AuditJournal.ACTION_DELETE_USER, client.getCurrentUsername(), backendName,
+                        userToDelete.getId() + " (" + userToDelete.getUsername() + ")",
+                        (hardDelete ? "hard" : "soft") + (error == null ? "" : ": " + error), error == null);
                 return null;
             }
 
             @Override
             protected void done() {
                 setControlsEnabled(true);
-                if (exc != null) {
-                    JOptionPane.showMessageDialog(AdminFrame.this, "Delete failed: " + exc.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                if (error != null) {
+                    setStatus("Delete failed");
+                    JOptionPane.showMessageDialog(AdminFrame.this, "Delete failed: " + error, "Error", JOptionPane.ERROR_MESSAGE);
                 } else {
                     JOptionPane.showMessageDialog(AdminFrame.this, "User deleted successfully", "Success", JOptionPane.INFORMATION_MESSAGE);
                     fetchUsers();
@@ -0,0 +1,93 @@
+package pccit.finalproject.javaclient;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Article summary as returned by {@code GET /api/articles}. The article body is deliberately not
+ * mapped, so streaming tens of thousands of articles does not keep their content on the heap.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class Article {
+    public String id;
+
+    @JsonProperty("author_id")
+    public String authorId;
+
+    public String title;
+
+    // author's username, joined in by the backend
+    public String username;
+
+    @JsonProperty("created_at")
+    public String createdAt;
+
+    public Integer likes;
+
+    // number of comments on the article
+    public Integer comments;
+
+    // filled in lazily from the details endpoint, only for rows that have been on screen
+    @JsonIgnore
+    private Integer imageCount;
+    @JsonIgnore
+    private String preview;
+
+    public String getId() { return id; }
+    public String getAuthorId() { return authorId; }
+    public String getTitle() { return title; }
+    public String getUsername() { return username; }
+    public String getCreatedAt() { return createdAt; }
+    public int getLikes() { return likes != null ? likes : 0; }
+    public int getComments() { return comments != null ? comments : 0; }
+
+    /** Number of embedded images, or null while the details have not been loaded. */
+    public Integer getImageCount() { return imageCount; }
+    public String getPreview() { return preview; }
+    public boolean hasDetails() { return imageCount != null; }
+
+    /** Keep only the small summary of the details, never the full content. */
+    public void applyDetails(Details details, int previewLength) {
+        this.imageCount = details.getImageCount();
+        this.preview = details.getPreview(previewLength);
+    }
+
+    @Override
+    public String toString() { return title != null ? title : ("Article " + id); }
+
+    /** Response of {@code GET /api/articles/:articleId}: the full article plus its embedded images. */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Details {
+        public Body article;
+        public List<Image> images;
+
+        public int getImageCount() { return images != null ? images.size() : 0; }
+
+        /** First {@code max} characters of the content, with whitespace collapsed. */
+        public String getPreview(int max) {
+            if (article == null || article.content == null) return "";
+            // content is stored as HTML by the rich-text editor
+            String flat = article.content.replaceAll("<[^>]*>", " ").replaceAll("\\s+", " ").trim();
+            return flat.length() <= max ? flat : flat.substring(0, max) + "...";
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Body {
+        public String id;
+        public String title;
+        public String content;
+
+        @JsonProperty("updated_at")
+        public String updatedAt;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Image {
+        public String id;
+        public String url;
+    }
+}
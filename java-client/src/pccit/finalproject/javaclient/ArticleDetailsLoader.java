@@ -0,0 +1,91 @@
+package pccit.finalproject.javaclient;
+
+import javax.swing.SwingUtilities;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Fetches article details ({@code GET /api/articles/:id}) only for rows currently on screen, the same way
+ * {@link AvatarThumbnailLoader} does for avatars: requests for rows that scroll away are cancelled and
+ * each completed row repaints just its detail cells. A failed fetch is retried after a backoff while the row
+ * is on screen, unless the backend answered 4xx (see {@link FailureBackoff}). EDT-confined apart from the
+ * fetch itself.
+ */
+public class ArticleDetailsLoader implements VisibleRowTracker.Listener {
+    private static final int PREVIEW_LENGTH = 120;
+
+    private final ArticleTableModel model;
+    private final Supplier<AdminClient> clientSupplier;
+    private final Map<String, Future<?>> inFlight = new HashMap<>();
+    private int[] visible = new int[0]; // last rows reported by the tracker, re-checked when a retry is due
+    private final FailureBackoff<String> failed = new FailureBackoff<>(() -> visibleRowsChanged(visible));
+
+    /** @param clientSupplier the session of the backend whose articles are currently listed */
+    public ArticleDetailsLoader(ArticleTableModel model, Supplier<AdminClient> clientSupplier) {
+        this.model = model;
+        this.clientSupplier = clientSupplier;
+    }
+
+    @Override
+    public void visibleRowsChanged(int[] modelRows) {
+        visible = modelRows;
+        Set<String> wanted = new HashSet<>();
+        for (int row : modelRows) {
+            Article a = model.getArticleAt(row);
+            if (a == null || a.hasDetails() || failed.isBlocked(a.getId())) continue;
+            wanted.add(a.getId());
+            if (!inFlight.containsKey(a.getId())) submit(a.getId());
+        }
+        for (Iterator<Map.Entry<String, Future<?>>> it = inFlight.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Future<?>> e = it.next();
+            if (!wanted.contains(e.getKey())) {
+                e.getValue().cancel(true);
+                it.remove();
+            }
+        }
+    }
+
+    public void clear() {
+        for (Future<?> f : inFlight.values()) f.cancel(true);
+        inFlight.clear();
+        failed.clear();
+    }
+
+    private void submit(String articleId) {
+        AdminClient client = clientSupplier.get();
+        Future<?> f = RequestScheduler.shared().submit(client, RequestScheduler.Priority.VISIBLE, () -> {
+            Article.Details details = null;
+            boolean permanent = false;
+            try {
+                details = client.getArticleDetails(articleId);
+            } catch (IOException e) {
+                System.err.println("Failed to load details for article " + articleId + ": " + e.getMessage());
+                permanent = AdminClient.isPermanentFailure(e);
+            }
+            final Article.Details result = details;
+            final boolean gone = permanent;
+            SwingUtilities.invokeLater(() -> onLoaded(articleId, result, gone));
+            return null;
+        });
+        inFlight.put(articleId, f);
+    }
+
+    private void onLoaded(String articleId, Article.Details details, boolean permanent) {
+        if (inFlight.remove(articleId) == null) return; // cancelled or cleared meanwhile
+        if (details == null) {
+            failed.failed(articleId, permanent);
+            return;
+        }
+        failed.succeeded(articleId);
+        int row = model.indexOf(articleId);
+        if (row < 0) return; // deleted or list reloaded meanwhile
+        model.getArticleAt(row).applyDetails(details, PREVIEW_LENGTH);
+        model.fireDetailsUpdated(row);
+    }
+}
@@ -0,0 +1,283 @@
+package pccit.finalproject.javaclient;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Article moderation tab: lists articles of one backend (search / sort on the server), streams them
+ * into the table as they are parsed, lazily loads details for visible rows and deletes selected
+ * articles in bulk, as low-priority {@link RequestScheduler} work, with a progress bar.
+ */
+public class ArticleModerationPanel extends JPanel {
+    private static final long serialVersionUID = 1L;
+
+    private final BackendGroup backends;
+    private final AuditJournal audit;
+    private final ArticleTableModel tableModel = new ArticleTableModel();
+    private final JTable articleTable = new JTable(tableModel);
+    private final ArticleDetailsLoader detailsLoader;
+
+    private final JComboBox<String> backendBox;
+    private final JTextField searchField = new JTextField(18);
+    private final JComboBox<String> sortByBox = new JComboBox<>(new String[] {"date", "title", "username"});
+    private final JComboBox<String> sortOrderBox = new JComboBox<>(new String[] {"desc", "asc"});
+    private final JButton loadButton = new JButton("Load");
+    private final JButton deleteButton = new JButton("Delete Selected");
+    private final JCheckBox hardDeleteBox = new JCheckBox("Permanent");
+    private final JButton cancelButton = new JButton("Cancel");
+    private final JProgressBar progressBar = new JProgressBar(0, 100);
+    private final JLabel statusLabel = new JLabel(" ");
+
+    private SwingWorker<Integer, Article> loadWorker;
+    private SwingWorker<Void, String> deleteWorker;
+    private boolean loggedIn;
+    // backend whose articles are in the table; the combo box may have moved on since the list was loaded
+    private int listedSource;
+
+    public ArticleModerationPanel(BackendGroup backends, AuditJournal audit) {
+        super(new BorderLayout(8, 8));
+        this.backends = backends;
+        this.audit = audit;
+        this.backendBox = new JComboBox<>(backends.names());
+        this.detailsLoader = new ArticleDetailsLoader(tableModel, this::listedClient);
+
+        createLayout();
+        attachListeners();
+        setLoggedIn(false);
+    }
+
+    private void createLayout() {
+        JPanel top = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        if (backends.isMulti()) {
+            top.add(new JLabel("Backend:"));
+            top.add(backendBox);
+        }
+        top.add(new JLabel("Search:"));
+        top.add(searchField);
+        top.add(new JLabel("Sort by:"));
+        top.add(sortByBox);
+        top.add(sortOrderBox);
+        top.add(loadButton);
+
+        articleTable.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        articleTable.getColumnModel().getColumn(ArticleTableModel.ID_COLUMN).setMaxWidth(60);
+        articleTable.getColumnModel().getColumn(ArticleTableModel.PREVIEW_COLUMN).setPreferredWidth(260);
+        JScrollPane scroll = new JScrollPane(articleTable);
+        // details are fetched only for rows inside the viewport
+        VisibleRowTracker tracker = new VisibleRowTracker(articleTable, scroll.getViewport());
+        tracker.addListener(detailsLoader);
+
+        JPanel bottom = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        bottom.add(deleteButton);
+        bottom.add(hardDeleteBox);
+        bottom.add(progressBar);
+        bottom.add(cancelButton);
+        bottom.add(statusLabel);
+        progressBar.setStringPainted(true);
+        progressBar.setVisible(false);
+        cancelButton.setVisible(false);
+
+        add(top, BorderLayout.NORTH);
+        add(scroll, BorderLayout.CENTER);
+        add(bottom, BorderLayout.SOUTH);
+    }
+
+    private void attachListeners() {
+        loadButton.addActionListener(e -> loadArticles());
+        searchField.addActionListener(e -> loadArticles());
+        deleteButton.addActionListener(e -> deleteSelected());
+        cancelButton.addActionListener(e -> {
+            if (deleteWorker != null) deleteWorker.cancel(true);
+        });
+        articleTable.getSelectionModel().addListSelectionListener(e -> updateButtons());
+    }
+
+    /** Called by the frame whenever the login state changes. */
+    public void setLoggedIn(boolean loggedIn) {
+        this.loggedIn = loggedIn;
+        if (!loggedIn) {
+            if (loadWorker != null) loadWorker.cancel(true);
+            if (deleteWorker != null) deleteWorker.cancel(true);
+            detailsLoader.clear();
+            tableModel.clear();
+            statusLabel.setText(" ");
+        }
+        updateButtons();
+    }
+
+    private void updateButtons() {
+        boolean busy = deleteWorker != null && !deleteWorker.isDone();
+        backendBox.setEnabled(loggedIn && !busy);
+        searchField.setEnabled(loggedIn);
+        loadButton.setEnabled(loggedIn && !busy);
+        deleteButton.setEnabled(loggedIn && !busy && articleTable.getSelectedRowCount() > 0);
+        hardDeleteBox.setEnabled(loggedIn && !busy);
+        articleTable.setEnabled(loggedIn);
+    }
+
+    /** Session of the backend the listed articles came from, for details and deletes. */
+    private AdminClient listedClient() {
+        return backends.clientFor(listedSource);
+    }
+
+    private void loadArticles() {
+        final int source = Math.max(backendBox.getSelectedIndex(), 0);
+        final AdminClient client = backends.clientFor(source);
+        if (!client.isLoggedIn()) {
+            JOptionPane.showMessageDialog(this, "Not logged in to " + backendBox.getSelectedItem(), "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (loadWorker != null) loadWorker.cancel(true); // superseded by this load
+        detailsLoader.clear();
+        tableModel.clear();
+        listedSource = source;
+        statusLabel.setText("Loading articles...");
+
+        final String search = searchField.getText();
+        final String sortBy = (String) sortByBox.getSelectedItem();
+        final String sortOrder = (String) sortOrderBox.getSelectedItem();
+        loadWorker = new SwingWorker<Integer, Article>() {
+            private Exception exc;
+            private int count;
+            @Override
+            protected Integer doInBackground() throws Exception {
+                try {
+                    // rows are published as they are parsed; SwingWorker coalesces them into chunks for the EDT
+                    RequestScheduler.shared().call(client, RequestScheduler.Priority.INTERACTIVE, () -> {
+                        client.listArticles(search, null, sortBy, sortOrder, a -> {
+                            if (isCancelled()) throw new CancellationException();
+                            publish(a);
+                        });
+                        return null;
+                    });
+                } catch (Exception e) {
+                    this.exc = e;
+                }
+                return null;
+            }
+
+            @Override
+            protected void process(List<Article> chunk) {
+                if (isCancelled()) return;
+                tableModel.addArticles(chunk);
+                count += chunk.size();
+                statusLabel.setText("Loading articles... " + count);
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled()) return;
+                if (exc != null) {
+                    statusLabel.setText("Load failed");
+                    JOptionPane.showMessageDialog(ArticleModerationPanel.this, "Failed to load articles: " + exc.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                statusLabel.setText("Articles loaded: " + tableModel.getRowCount());
+            }
+        };
+        loadWorker.execute();
+    }
+
+    private void deleteSelected() {
+        int[] rows = articleTable.getSelectedRows();
+        if (rows.length == 0) return;
+        final List<String> ids = new ArrayList<>();
+        for (int row : rows) ids.add(tableModel.getArticleAt(articleTable.convertRowIndexToModel(row)).getId());
+        final boolean hard = hardDeleteBox.isSelected();
+
+        int confirm = JOptionPane.showConfirmDialog(this,
+                "Are you sure you want to " + (hard ? "permanently " : "") + "delete " + ids.size() + " article(s)?",
+                "Confirm Delete",
+                JOptionPane.YES_NO_OPTION);
+        if (confirm != JOptionPane.YES_OPTION) {
+            return;
+        }
+
+        final AdminClient client = listedClient();
+        final String backendName = backends.get(listedSource).getName();
+        progressBar.setValue(0);
+        progressBar.setVisible(true);
+        cancelButton.setVisible(true);
+        statusLabel.setText("Deleting " + ids.size() + " article(s)...");
+
+        deleteWorker = new SwingWorker<Void, String>() {
+            private final List<String> failures = new ArrayList<>();
+            private int deleted;
+
+            @Override
+            protected Void doInBackground() throws Exception {
+                // bulk priority: the scheduler bounds concurrency and rate, and keeps slots free for the UI
+                BlockingQueue<String> results = new LinkedBlockingQueue<>();
+                List<Future<String>> futures = new ArrayList<>();
+                try {
+                    for (String id : ids) {
+                        CompletableFuture<String> f = RequestScheduler.shared().submit(client, RequestScheduler.Priority.BULK, () -> {
+                            String error;
+                            try {
+                                error = client.deleteArticleById(id, hard) ? null : "rejected";
+                            } catch (Exception e) {
+                                error = e.getMessage();
+                            }
+                            audit.record(AuditJournal.ACTION_DELETE_ARTICLE, client.getCurrentUsername(), backendName, id,
+                                    (hard ? "hard" : "soft") + (error == null ? "" : ": " + error), error == null);
+                            return error == null ? id : "!" + id;
+                        });
+                        // every job posts exactly one result, even if it was cancelled or threw
+                        f.whenComplete((r, e) -> results.add(r != null ? r : "!" + id));
+                        futures.add(f);
+                    }
+                    for (int done = 1; done <= futures.size(); done++) {
+                        publish(results.take());
+                        setProgress(done * 100 / futures.size());
+                    }
+                } finally {
+                    // on cancel, queued deletes are dropped; running ones finish on the server regardless
+                    for (Future<String> f : futures) f.cancel(true);
+                }
+                return null;
+            }
+
+            @Override
+            protected void process(List<String> chunk) {
+                List<String> removed = new ArrayList<>();
+                for (String r : chunk) {
+                    if (r.startsWith("!")) {
+                        failures.add(r.substring(1));
+                    } else {
+                        deleted++;
+                        removed.add(r);
+                    }
+                }
+                tableModel.removeArticles(removed);
+                progressBar.setValue(getProgress());
+                statusLabel.setText("Deleted " + deleted + "/" + ids.size());
+            }
+
+            @Override
+            protected void done() {
+                progressBar.setVisible(false);
+                cancelButton.setVisible(false);
+                String summary = "Deleted " + deleted + " of " + ids.size() + " article(s)"
+                        + (isCancelled() ? " (cancelled)" : "");
+                statusLabel.setText(summary);
+                if (!failures.isEmpty()) {
+                    JOptionPane.showMessageDialog(ArticleModerationPanel.this,
+                            summary + "\nFailed: " + String.join(", ", failures), "Delete", JOptionPane.WARNING_MESSAGE);
+                }
+                updateButtons();
+            }
+        };
+        deleteWorker.addPropertyChangeListener(evt -> {
+            if ("progress".equals(evt.getPropertyName())) progressBar.setValue((Integer) evt.getNewValue());
+        });
+        deleteWorker.execute();
+        updateButtons();
+    }
+}
@@ -0,0 +1,139 @@
+package pccit.finalproject.javaclient;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Table model for the article moderation view. Rows are appended in chunks while the article list
+ * streams in; the "Images" and "Preview" columns stay empty until {@link ArticleDetailsLoader} has
+ * fetched the details of a row that scrolled into view.
+ */
+public class ArticleTableModel extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+
+    public static final int ID_COLUMN = 0;
+    public static final int TITLE_COLUMN = 1;
+    public static final int AUTHOR_COLUMN = 2;
+    public static final int CREATED_COLUMN = 3;
+    public static final int LIKES_COLUMN = 4;
+    public static final int COMMENTS_COLUMN = 5;
+    public static final int IMAGES_COLUMN = 6;
+    public static final int PREVIEW_COLUMN = 7;
+
+    private final String[] columns = {"ID", "Title", "Author", "Created", "Likes", "Comments", "Images", "Preview"};
+    private final List<Article> articles = new ArrayList<>();
+    // article id -> row, kept in sync so completed background work can find its row in O(1)
+    private final Map<String, Integer> rowById = new HashMap<>();
+
+    public void clear() {
+        articles.clear();
+        rowById.clear();
+        fireTableDataChanged();
+    }
+
+    public void addArticles(List<Article> chunk) {
+        if (chunk == null || chunk.isEmpty()) return;
+        int first = articles.size();
+        for (Article a : chunk) {
+            rowById.put(a.getId(), articles.size());
+            articles.add(a);
+        }
+        fireTableRowsInserted(first, articles.size() - 1);
+    }
+
+    public void removeArticle(String articleId) {
+        removeArticles(Collections.singleton(articleId));
+    }
+
+    /**
+     * Remove a batch of articles in one pass: the list is compacted once and the index is only
+     * renumbered from the first removed row, so a bulk delete stays linear.
+     */
+    public void removeArticles(Collection<String> articleIds) {
+        Set<String> doomed = new HashSet<>();
+        int first = Integer.MAX_VALUE;
+        int last = -1;
+        for (String id : articleIds) {
+            Integer row = rowById.remove(id);
+            if (row == null) continue;
+            doomed.add(id);
+            first = Math.min(first, row);
+            last = Math.max(last, row);
+        }
+        if (doomed.isEmpty()) return;
+        int kept = first;
+        for (int i = first; i < articles.size(); i++) {
+            Article a = articles.get(i);
+            if (doomed.contains(a.getId())) continue;
+            articles.set(kept, a);
+            rowById.put(a.getId(), kept++);
+        }
+        articles.subList(kept, articles.size()).clear();
+        if (last - first + 1 == doomed.size()) {
+            fireTableRowsDeleted(first, last); // one contiguous run
+        } else {
+            fireTableDataChanged();
+        }
+    }
+
+    public Article getArticleAt(int row) {
+        if (row >= 0 && row < articles.size()) return articles.get(row);
+        return null;
+    }
+
+    /** Model row of an article id, or -1. */
+    public int indexOf(String articleId) {
+        Integer row = rowById.get(articleId);
+        return row != null ? row : -1;
+    }
+
+    /** Repaint the lazily loaded detail cells of one row. */
+    public void fireDetailsUpdated(int row) {
+        fireTableCellUpdated(row, IMAGES_COLUMN);
+        fireTableCellUpdated(row, PREVIEW_COLUMN);
+    }
+
+    @Override
+    public int getRowCount() { return articles.size(); }
+
+    @Override
+    public int getColumnCount() { return columns.length; }
+
+    @Override
+    public String getColumnName(int column) { return columns[column]; }
+
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+        switch (columnIndex) {
+            case LIKES_COLUMN:
+            case COMMENTS_COLUMN:
+            case IMAGES_COLUMN:
+                return Integer.class;
+            default:
+                return String.class;
+        }
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        Article a = articles.get(rowIndex);
+        switch (columnIndex) {
+            case ID_COLUMN: return a.getId();
+            case TITLE_COLUMN: return a.getTitle();
+            case AUTHOR_COLUMN: return a.getUsername();
+            case CREATED_COLUMN: return a.getCreatedAt();
+            case LIKES_COLUMN: return a.getLikes();
+            case COMMENTS_COLUMN: return a.getComments();
+            case IMAGES_COLUMN: return a.getImageCount(); // null until loaded
+            case PREVIEW_COLUMN: return a.hasDetails() ? a.getPreview() : "...";
+            default: return "";
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package pccit.finalproject.javaclient;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Local, append-only journal of admin actions (deletes, logins, logouts).
+ * <p>
+ * {@link #record} never blocks: entries go to an in-memory queue and a single writer thread appends
+ * whatever has accumulated as one write followed by one {@code force()} (group commit), so a bulk delete
+ * of hundreds of articles costs a handful of fsyncs. Each record carries a CRC32 and a SHA-256 hash
+ * chained to the previous record, so a torn tail (crash mid-write) is detected and set aside on the next
+ * open, and any edit to earlier records breaks the chain; see {@link AuditJournalReader#verify}.
+ * <p>
+ * The chain is unkeyed: it detects corruption and careless edits, not tampering. Anyone who can write the
+ * file can also recompute every hash after an edit, or cut records off the end. Copy the journal somewhere
+ * the admins cannot write if it has to stand as evidence.
+ * <p>
+ * If the file cannot be opened, nothing is recorded: {@link #record} drops entries with a warning on
+ * stderr and {@link #getFailure} says why, so the UI can tell the admin.
+ * <p>
+ * Record layout (big-endian):
+ * <pre>
+ *   int    payload length
+ *   long   sequence number (1, 2, ...)
+ *   long   timestamp (epoch millis)
+ *   byte[32] SHA-256(previous hash | seq | timestamp | payload)
+ *   byte[] payload: action, actor, backend, target, detail as (short length, UTF-8) + byte ok
+ *   int    CRC32 of everything above
+ * </pre>
+ */
+public class AuditJournal implements AutoCloseable {
+    public static final String ACTION_LOGIN = "login";
+    public static final String ACTION_LOGOUT = "logout";
+    public static final String ACTION_DELETE_USER = "user.delete";
+    public static final String ACTION_DELETE_ARTICLE = "article.delete";
+    public static final String ACTION_REPLACE_AVATAR = "user.avatar";
+
+    static final int HEADER_SIZE = 4 + 8 + 8 + 32;
+    static final int TRAILER_SIZE = 4;
+    static final int MAX_PAYLOAD = 64 * 1024;
+    static final int MAX_FIELD = 4096; // bytes of UTF-8 per text field
+
+    private static final int QUEUE_CAPACITY = 100_000;
+    private static final int MAX_BATCH = 1024;
+    private static final long POLL_MILLIS = 200;
+
+    private final Path path;
+    private final BlockingQueue<Entry> queue = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicLong dropped = new AtomicLong();
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private final Thread writer;
+    private volatile boolean closing;
+    private volatile String failure; // set if the journal could not be opened
+
+    // writer-thread state
+    private FileChannel channel;
+    private long lastSeq;
+    private byte[] lastHash = new byte[32];
+
+    /** Opens (or creates) the journal; recovery and all I/O happen on the writer thread. */
+    public AuditJournal(Path path) {
+        this.path = path;
+        this.writer = new Thread(this::writeLoop, "audit-journal");
+        writer.setDaemon(true);
+        writer.start();
+        // flush what is queued when the window is closed (EXIT_ON_CLOSE runs shutdown hooks)
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "audit-journal-close"));
+    }
+
+    /** The journal at {@code -Dadminclient.auditJournal}, or {@code ~/.trycatchme-admin/audit.journal}. */
+    public static AuditJournal openDefault() {
+        return new AuditJournal(defaultPath());
+    }
+
+    public static Path defaultPath() {
+        String configured = System.getProperty("adminclient.auditJournal");
+        if (configured != null && !configured.isEmpty()) return Paths.get(configured);
+        return Paths.get(System.getProperty("user.home"), ".trycatchme-admin", "audit.journal");
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /** Why the journal is not recording (it could not be opened), or null while it works. */
+    public String getFailure() {
+        return failure;
+    }
+
+    /** Queue an entry for writing. Safe from any thread, never blocks; drops (and counts) if the writer is far behind. */
+    public void record(String action, String actor, String backend, String target, String detail, boolean ok) {
+        if (closing) return;
+        if (failure != null) {
+            long n = dropped.incrementAndGet();
+            if (n == 1 || n % 1000 == 0) System.err.println("Audit journal unavailable (" + failure + "), " + n + " entries not recorded");
+            return;
+        }
+        Entry e = new Entry(0, System.currentTimeMillis(), action, actor, backend, target, detail, ok);
+        if (!queue.offer(e)) {
+            long n = dropped.incrementAndGet();
+            if (n == 1 || n % 1000 == 0) System.err.println("Audit journal queue full, dropped " + n + " entries");
+        }
+    }
+
+    /** Write out everything queued so far and stop the writer. Waits at most a few seconds. */
+    @Override
+    public void close() {
+        // no interrupt: it would close the FileChannel under a write in progress
+        closing = true;
+        try {
+            stopped.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        try {
+            open();
+        } catch (IOException e) {
+            failure = "failed to open " + path + ": " + e.getMessage();
+            System.err.println("Audit journal " + failure + "; admin actions will not be recorded"
+                    + (queue.isEmpty() ? "" : ", " + queue.size() + " queued entries lost"));
+            queue.clear();
+            stopped.countDown();
+            return;
+        }
+        List<Entry> batch = new ArrayList<>(MAX_BATCH);
+        try {
+            while (true) {
+                Entry first;
+                try {
+                    first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    first = null;
+                }
+                if (first == null) {
+                    if (closing) break; // queue drained
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                try {
+                    append(batch);
+                } catch (IOException e) {
+                    System.err.println("Failed to write audit journal: " + e.getMessage());
+                }
+                batch.clear();
+            }
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException ignored) {}
+            stopped.countDown();
+        }
+    }
+
+    /**
+     * Open for append and pick up the sequence / hash chain where it ended. A torn tail (the last record, cut
+     * short by a crash) is copied aside and cut off; damage anywhere else is never truncated: the whole file
+     * is set aside instead and a new journal is started.
+     */
+    private void open() throws IOException {
+        Path dir = path.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        AuditJournalReader.Scan scan = AuditJournalReader.scan(channel, 0, Long.MAX_VALUE, null);
+        if (scan.validEnd < scan.size && !scan.tornTail) {
+            channel.close();
+            Path aside = path.resolveSibling(path.getFileName() + ".corrupt-" + System.currentTimeMillis());
+            Files.move(path, aside);
+            System.err.println("Audit journal: unreadable record at byte " + scan.validEnd + ", moved the journal to " + aside + " and started a new one");
+            channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return;
+        }
+        if (scan.validEnd < scan.size) {
+            // most likely a write torn by a crash; keep the bytes aside rather than destroying evidence
+            Path aside = path.resolveSibling(path.getFileName() + ".torn-" + System.currentTimeMillis());
+            try (FileChannel out = FileChannel.open(aside, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                for (long pos = scan.validEnd; pos < scan.size; ) {
+                    pos += channel.transferTo(pos, scan.size - pos, out);
+                }
+                out.force(true);
+            }
+            System.err.println("Audit journal: moved " + (scan.size - scan.validEnd) + " bytes of an incomplete record to " + aside);
+            channel.truncate(scan.validEnd);
+            channel.force(true);
+        }
+        lastSeq = scan.lastSeq;
+        lastHash = scan.lastHash;
+        channel.position(scan.validEnd);
+    }
+
+    private void append(List<Entry> batch) throws IOException {
+        List<byte[]> payloads = new ArrayList<>(batch.size());
+        int total = 0;
+        for (Entry e : batch) {
+            byte[] p = encodePayload(e);
+            payloads.add(p);
+            total += HEADER_SIZE + p.length + TRAILER_SIZE;
+        }
+        ByteBuffer buf = ByteBuffer.allocate(total);
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < batch.size(); i++) {
+            Entry e = batch.get(i);
+            byte[] payload = payloads.get(i);
+            long seq = lastSeq + 1;
+            byte[] hash = chainHash(lastHash, seq, e.timestamp, payload);
+            int start = buf.position();
+            buf.putInt(payload.length).putLong(seq).putLong(e.timestamp).put(hash).put(payload);
+            crc.reset();
+            crc.update(buf.array(), start, buf.position() - start);
+            buf.putInt((int) crc.getValue());
+            lastSeq = seq;
+            lastHash = hash;
+        }
+        buf.flip();
+        while (buf.hasRemaining()) channel.write(buf);
+        channel.force(false); // one fsync for the whole batch
+    }
+
+    static byte[] chainHash(byte[] prev, long seq, long timestamp, byte[] payload) {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every JRE ships SHA-256
+        }
+        md.update(prev);
+        md.update(ByteBuffer.allocate(16).putLong(seq).putLong(timestamp).array());
+        md.update(payload);
+        return md.digest();
+    }
+
+    static byte[] encodePayload(Entry e) {
+        byte[][] fields = {utf8(e.action), utf8(e.actor), utf8(e.backend), utf8(e.target), utf8(e.detail)};
+        int size = 1;
+        for (byte[] f : fields) size += 2 + f.length;
+        ByteBuffer buf = ByteBuffer.allocate(size);
+        for (byte[] f : fields) buf.putShort((short) f.length).put(f);
+        buf.put((byte) (e.ok ? 1 : 0));
+        return buf.array();
+    }
+
+    static Entry decodePayload(long seq, long timestamp, ByteBuffer buf) {
+        String action = readString(buf);
+        String actor = readString(buf);
+        String backend = readString(buf);
+        String target = readString(buf);
+        String detail = readString(buf);
+        boolean ok = buf.get() != 0;
+        return new Entry(seq, timestamp, action, actor, backend, target, detail, ok);
+    }
+
+    private static byte[] utf8(String s) {
+        if (s == null) return new byte[0];
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        // fields are short-length prefixed; anything longer is cut (detail strings are short anyway),
+        // backing off to the start of a character so the field stays valid UTF-8
+        if (b.length <= MAX_FIELD) return b;
+        int end = MAX_FIELD;
+        while (end > 0 && (b[end] & 0xC0) == 0x80) end--;
+        return Arrays.copyOf(b, end);
+    }
+
+    private static String readString(ByteBuffer buf) {
+        int len = buf.getShort() & 0xFFFF;
+        byte[] b = new byte[len];
+        buf.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    /** One journal record. {@code seq} is 0 until the entry has been written. */
+    public static final class Entry {
+        public final long seq;
+        public final long timestamp;
+        public final String action;
+        public final String actor;
+        public final String backend;
+        public final String target;
+        public final String detail;
+        public final boolean ok;
+
+        Entry(long seq, long timestamp, String action, String actor, String backend, String target, String detail, boolean ok) {
+            this.seq = seq;
+            this.timestamp = timestamp;
+            this.action = action;
+            this.actor = actor;
+            this.backend = backend;
+            this.target = target;
+            this.detail = detail;
+            this.ok = ok;
+        }
+
+        @Override
+        public String toString() {
+            return seq + " " + java.time.Instant.ofEpochMilli(timestamp) + " " + action + " by " + actor
+                    + " @" + backend + " target=" + target + (detail == null || detail.isEmpty() ? "" : " (" + detail + ")")
+                    + (ok ? "" : " FAILED");
+        }
+    }
+}
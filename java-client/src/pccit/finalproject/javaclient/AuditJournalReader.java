@@ -0,0 +1,260 @@
+package pccit.finalproject.javaclient;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+/**
+ * Reads an {@link AuditJournal} file: replay, time-range queries and integrity verification.
+ * <p>
+ * The file is scanned sequentially through a fixed-size read window, so journals of any size are read in
+ * bounded memory; a time-range query looks at the fixed-size record header first and only decodes the
+ * payload of records inside the range. A damaged record whose length field is intact is skipped (and
+ * breaks the chain) rather than hiding every record after it.
+ * <p>
+ * Also usable from the command line:
+ * {@code java -cp ... pccit.finalproject.javaclient.AuditJournalReader [journal] [--verify] [--action user.delete] [--since 2024-01-01T00:00:00Z]}
+ */
+public class AuditJournalReader {
+    private static final int WINDOW_SIZE = 1024 * 1024;
+    static final int MAX_RECORD_SIZE = AuditJournal.HEADER_SIZE + AuditJournal.MAX_PAYLOAD + AuditJournal.TRAILER_SIZE;
+
+    private static final int RECORD_OK = 0;
+    private static final int RECORD_CUT_SHORT = 1;
+    private static final int RECORD_CORRUPT = 2;
+
+    /** Outcome of a sequential scan. */
+    static final class Scan {
+        long size;          // file size when the scan started
+        long validEnd;      // byte offset just after the last well-formed record
+        boolean tornTail;   // everything after validEnd is one record cut short by EOF (or zero fill)
+        long records;
+        long corruptRecords; // damaged records skipped because a good record followed
+        long lastSeq;
+        byte[] lastHash = new byte[32];
+        long firstBrokenSeq = -1; // first record whose chained hash does not match
+    }
+
+    /** Result of {@link #verify}. */
+    public static final class Verification {
+        public final long records;
+        public final long corruptRecords;
+        public final long trailingBytes;
+        public final long firstBrokenSeq;
+
+        Verification(long records, long corruptRecords, long trailingBytes, long firstBrokenSeq) {
+            this.records = records;
+            this.corruptRecords = corruptRecords;
+            this.trailingBytes = trailingBytes;
+            this.firstBrokenSeq = firstBrokenSeq;
+        }
+
+        /** True if every record is intact and the hash chain is unbroken. */
+        public boolean isIntact() {
+            return corruptRecords == 0 && trailingBytes == 0 && firstBrokenSeq < 0;
+        }
+
+        @Override
+        public String toString() {
+            if (isIntact()) return records + " records, chain intact";
+            return records + " records"
+                    + (corruptRecords > 0 ? ", " + corruptRecords + " corrupt record(s) skipped" : "")
+                    + (firstBrokenSeq >= 0 ? ", hash chain broken at #" + firstBrokenSeq : "")
+                    + (trailingBytes > 0 ? ", " + trailingBytes + " unreadable trailing bytes" : "");
+        }
+    }
+
+    /** Feed every record, oldest first, to {@code consumer}. */
+    public static void replay(Path journal, Consumer<AuditJournal.Entry> consumer) throws IOException {
+        scan(journal, 0, Long.MAX_VALUE, consumer);
+    }
+
+    /** Records with {@code fromMillis <= timestamp < toMillis} that match {@code filter}. */
+    public static List<AuditJournal.Entry> query(Path journal, long fromMillis, long toMillis, Predicate<AuditJournal.Entry> filter) throws IOException {
+        List<AuditJournal.Entry> result = new ArrayList<>();
+        scan(journal, fromMillis, toMillis, e -> {
+            if (filter == null || filter.test(e)) result.add(e);
+        });
+        return result;
+    }
+
+    /** Check CRCs and the hash chain of the whole file (finds corruption and naive edits, not deliberate tampering). */
+    public static Verification verify(Path journal) throws IOException {
+        Scan scan = scan(journal, 0, Long.MAX_VALUE, null);
+        return new Verification(scan.records, scan.corruptRecords, scan.size - scan.validEnd, scan.firstBrokenSeq);
+    }
+
+    private static Scan scan(Path journal, long fromMillis, long toMillis, Consumer<AuditJournal.Entry> consumer) throws IOException {
+        if (!Files.exists(journal)) return new Scan();
+        try (FileChannel ch = FileChannel.open(journal, StandardOpenOption.READ)) {
+            return scan(ch, fromMillis, toMillis, consumer);
+        }
+    }
+
+    /**
+     * Walk the records of {@code ch} from offset 0. A record that fails its CRC is skipped when its length
+     * field leads to a good record; otherwise the walk stops there. Entries with a timestamp in [from, to)
+     * are decoded and passed to {@code consumer} (if any).
+     */
+    static Scan scan(FileChannel ch, long fromMillis, long toMillis, Consumer<AuditJournal.Entry> consumer) throws IOException {
+        Scan scan = new Scan();
+        Window window = new Window(ch);
+        scan.size = window.size;
+        CRC32 crc = new CRC32();
+        byte[] storedHash = new byte[32];
+        long pos = 0;
+        while (pos < window.size) {
+            int status = check(window, pos, crc);
+            if (status == RECORD_CUT_SHORT) {
+                scan.tornTail = true;
+                break;
+            }
+            if (status == RECORD_CORRUPT) {
+                int len = window.buffer(pos, AuditJournal.HEADER_SIZE).getInt(window.offset(pos));
+                boolean lengthIntact = len >= 0 && len <= AuditJournal.MAX_PAYLOAD;
+                long next = lengthIntact ? pos + recordSize(len) : -1;
+                if (next == window.size) {
+                    scan.tornTail = true; // the last record, damaged by the crash that tore it
+                    break;
+                }
+                if (!lengthIntact || check(window, next, crc) != RECORD_OK) {
+                    scan.tornTail = isZeroFilled(window, pos);
+                    break;
+                }
+                scan.corruptRecords++;
+                if (scan.firstBrokenSeq < 0) scan.firstBrokenSeq = scan.lastSeq + 1;
+                pos = next;
+                continue;
+            }
+
+            ByteBuffer buf = window.buffer(pos, AuditJournal.HEADER_SIZE);
+            int at = window.offset(pos);
+            int len = buf.getInt(at);
+            buf = window.buffer(pos, recordSize(len));
+            at = window.offset(pos);
+            long seq = buf.getLong(at + 4);
+            long timestamp = buf.getLong(at + 12);
+            ByteBuffer hashView = buf.duplicate();
+            hashView.position(at + 20);
+            hashView.get(storedHash);
+            ByteBuffer payload = buf.duplicate();
+            payload.position(at + AuditJournal.HEADER_SIZE).limit(at + AuditJournal.HEADER_SIZE + len);
+
+            if (scan.firstBrokenSeq < 0) {
+                byte[] payloadBytes = new byte[len];
+                payload.duplicate().get(payloadBytes);
+                byte[] expected = AuditJournal.chainHash(scan.lastHash, seq, timestamp, payloadBytes);
+                if (seq != scan.lastSeq + 1 || !Arrays.equals(expected, storedHash)) scan.firstBrokenSeq = seq;
+            }
+
+            if (consumer != null && timestamp >= fromMillis && timestamp < toMillis) {
+                consumer.accept(AuditJournal.decodePayload(seq, timestamp, payload));
+            }
+            scan.records++;
+            scan.lastSeq = seq;
+            scan.lastHash = storedHash.clone();
+            pos += recordSize(len);
+            scan.validEnd = pos;
+        }
+        return scan;
+    }
+
+    /** Whether a well-formed record starts at {@code pos}, one is cut short by the end of the file, or it is corrupt. */
+    private static int check(Window window, long pos, CRC32 crc) throws IOException {
+        if (window.size - pos < AuditJournal.HEADER_SIZE + AuditJournal.TRAILER_SIZE) return RECORD_CUT_SHORT;
+        int len = window.buffer(pos, AuditJournal.HEADER_SIZE).getInt(window.offset(pos));
+        if (len < 0 || len > AuditJournal.MAX_PAYLOAD) return RECORD_CORRUPT;
+        int size = recordSize(len);
+        if (pos + size > window.size) return RECORD_CUT_SHORT;
+
+        ByteBuffer buf = window.buffer(pos, size);
+        int at = window.offset(pos);
+        ByteBuffer record = buf.duplicate();
+        record.position(at).limit(at + size - AuditJournal.TRAILER_SIZE);
+        crc.reset();
+        crc.update(record);
+        return (int) crc.getValue() == buf.getInt(at + size - AuditJournal.TRAILER_SIZE) ? RECORD_OK : RECORD_CORRUPT;
+    }
+
+    /** Some filesystems leave a crashed append as zeros; that is a torn tail too. */
+    private static boolean isZeroFilled(Window window, long from) throws IOException {
+        for (long pos = from; pos < window.size; ) {
+            int n = (int) Math.min(MAX_RECORD_SIZE, window.size - pos);
+            ByteBuffer buf = window.buffer(pos, n);
+            int at = window.offset(pos);
+            for (int i = 0; i < n; i++) {
+                if (buf.get(at + i) != 0) return false;
+            }
+            pos += n;
+        }
+        return true;
+    }
+
+    private static int recordSize(int payloadLength) {
+        return AuditJournal.HEADER_SIZE + payloadLength + AuditJournal.TRAILER_SIZE;
+    }
+
+    /** Positional reads through one reusable buffer; every request fits since records are at most {@link #MAX_RECORD_SIZE}. */
+    private static final class Window {
+        final long size;
+        private final FileChannel ch;
+        private final ByteBuffer buf = ByteBuffer.allocate(WINDOW_SIZE);
+        private long start;
+
+        Window(FileChannel ch) throws IOException {
+            this.ch = ch;
+            this.size = ch.size();
+            buf.limit(0);
+        }
+
+        /** The buffer with file bytes [pos, pos + n) loaded; index them from {@link #offset(long) offset(pos)}. */
+        ByteBuffer buffer(long pos, int n) throws IOException {
+            if (pos < start || pos + n > start + buf.limit()) {
+                buf.clear();
+                start = pos;
+                while (buf.hasRemaining() && ch.read(buf, start + buf.position()) > 0) {}
+                buf.flip();
+                if (buf.limit() < n) throw new EOFException("Audit journal shrank while reading at byte " + pos);
+            }
+            return buf;
+        }
+
+        int offset(long pos) {
+            return (int) (pos - start);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path journal = AuditJournal.defaultPath();
+        boolean verify = false;
+        String action = null;
+        long since = 0;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--verify": verify = true; break;
+                case "--action": action = args[++i]; break;
+                case "--since": since = Instant.parse(args[++i]).toEpochMilli(); break;
+                default: journal = Path.of(args[i]);
+            }
+        }
+        if (verify) {
+            System.out.println(journal + ": " + verify(journal));
+            return;
+        }
+        final String wanted = action;
+        for (AuditJournal.Entry e : query(journal, since, Long.MAX_VALUE, e -> wanted == null || wanted.equals(e.action))) {
+            System.out.println(e);
+        }
+    }
+}
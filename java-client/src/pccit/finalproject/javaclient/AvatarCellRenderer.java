@@ -0,0 +1,30 @@
+package pccit.finalproject.javaclient;
+
+import javax.swing.JLabel;
+import javax.swing.JTable;
+import javax.swing.SwingConstants;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.awt.Component;
+
+/**
+ * Renders the avatar column. The cell value is the user id; the icon comes from the
+ * {@link AvatarThumbnailLoader}, which never blocks and returns a placeholder until the thumbnail is ready.
+ */
+public class AvatarCellRenderer extends DefaultTableCellRenderer {
+    private static final long serialVersionUID = 1L;
+
+    private final AvatarThumbnailLoader loader;
+
+    public AvatarCellRenderer(AvatarThumbnailLoader loader) {
+        this.loader = loader;
+        setHorizontalAlignment(SwingConstants.CENTER);
+    }
+
+    @Override
+    public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                   boolean hasFocus, int row, int column) {
+        JLabel label = (JLabel) super.getTableCellRendererComponent(table, null, isSelected, hasFocus, row, column);
+        label.setIcon(value instanceof Long ? loader.iconFor((Long) value) : null);
+        return label;
+    }
+}
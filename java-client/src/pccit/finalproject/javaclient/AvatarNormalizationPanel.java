@@ -0,0 +1,295 @@
+package pccit.finalproject.javaclient;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Avatar maintenance tab: scans every active user's avatar on one backend, and downscales and re-encodes
+ * those over a size or dimension threshold ({@link AvatarNormalizer}). A dry run only reports what would
+ * change; a real run re-uploads the smaller files. Fetching, re-encoding and uploading run as bulk
+ * {@link RequestScheduler} work, so the UI keeps its share of connections. After a run that replaced
+ * avatars, {@code onAvatarsReplaced} is called on the EDT so the frame can drop its stale avatar URLs.
+ */
+public class AvatarNormalizationPanel extends JPanel {
+    private static final long serialVersionUID = 1L;
+
+    private static final float JPEG_QUALITY = 0.85f;
+    // oversized avatars are what this tab is for, so allow more than the thumbnail download cap
+    private static final int MAX_SOURCE_BYTES = Math.max(AdminClient.MAX_DOWNLOAD_BYTES, 32 * 1024 * 1024);
+
+    private final BackendGroup backends;
+    private final AuditJournal audit;
+    private final Runnable onAvatarsReplaced;
+
+    private final JComboBox<String> backendBox;
+    private final JSpinner maxKbSpinner = new JSpinner(new SpinnerNumberModel(256, 16, 5 * 1024, 16));
+    private final JSpinner maxPxSpinner = new JSpinner(new SpinnerNumberModel(512, 64, 4096, 32));
+    private final JCheckBox dryRunBox = new JCheckBox("Dry run", true);
+    private final JButton scanButton = new JButton("Scan");
+    private final JButton cancelButton = new JButton("Cancel");
+    private final JProgressBar progressBar = new JProgressBar(0, 100);
+    private final JLabel statusLabel = new JLabel(" ");
+    private final JTextArea report = new JTextArea();
+
+    private SwingWorker<Void, Item> worker;
+    private boolean loggedIn;
+
+    /** Outcome for one user, produced on a scheduler thread. */
+    private static final class Item {
+        final String user;
+        AvatarNormalizer.Result result;
+        boolean uploaded;
+        String error;
+
+        Item(String user) { this.user = user; }
+    }
+
+    public AvatarNormalizationPanel(BackendGroup backends, AuditJournal audit, Runnable onAvatarsReplaced) {
+        super(new BorderLayout(8, 8));
+        this.backends = backends;
+        this.audit = audit;
+        this.onAvatarsReplaced = onAvatarsReplaced;
+        this.backendBox = new JComboBox<>(backends.names());
+
+        createLayout();
+        cancelButton.addActionListener(e -> {
+            if (worker != null) worker.cancel(true);
+        });
+        scanButton.addActionListener(e -> runScan());
+        setLoggedIn(false);
+    }
+
+    private void createLayout() {
+        JPanel top = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        if (backends.isMulti()) {
+            top.add(new JLabel("Backend:"));
+            top.add(backendBox);
+        }
+        top.add(new JLabel("Max size (KB):"));
+        top.add(maxKbSpinner);
+        top.add(new JLabel("Max dimension (px):"));
+        top.add(maxPxSpinner);
+        top.add(dryRunBox);
+        top.add(scanButton);
+
+        report.setEditable(false);
+        report.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+
+        JPanel bottom = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        bottom.add(progressBar);
+        bottom.add(cancelButton);
+        bottom.add(statusLabel);
+        progressBar.setStringPainted(true);
+        progressBar.setVisible(false);
+        cancelButton.setVisible(false);
+
+        add(top, BorderLayout.NORTH);
+        add(new JScrollPane(report), BorderLayout.CENTER);
+        add(bottom, BorderLayout.SOUTH);
+    }
+
+    /** Called by the frame whenever the login state changes. */
+    public void setLoggedIn(boolean loggedIn) {
+        this.loggedIn = loggedIn;
+        if (!loggedIn) {
+            if (worker != null) worker.cancel(true);
+            report.setText("");
+            statusLabel.setText(" ");
+        }
+        updateButtons();
+    }
+
+    private void updateButtons() {
+        boolean busy = worker != null && !worker.isDone();
+        backendBox.setEnabled(loggedIn && !busy);
+        maxKbSpinner.setEnabled(loggedIn && !busy);
+        maxPxSpinner.setEnabled(loggedIn && !busy);
+        dryRunBox.setEnabled(loggedIn && !busy);
+        scanButton.setEnabled(loggedIn && !busy);
+    }
+
+    private void runScan() {
+        final AdminClient client = backends.clientFor(Math.max(backendBox.getSelectedIndex(), 0));
+        if (!client.isLoggedIn()) {
+            JOptionPane.showMessageDialog(this, "Not logged in to " + backendBox.getSelectedItem(), "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        final boolean dryRun = dryRunBox.isSelected();
+        final String backendName = (String) backendBox.getSelectedItem();
+        final int maxBytes = (Integer) maxKbSpinner.getValue() * 1024;
+        final int maxPixels = (Integer) maxPxSpinner.getValue();
+        if (!dryRun) {
+            int confirm = JOptionPane.showConfirmDialog(this,
+                    "Replace every avatar over " + maxKbSpinner.getValue() + " KB or " + maxPixels + " px with a smaller copy?",
+                    "Confirm Avatar Update",
+                    JOptionPane.YES_NO_OPTION);
+            if (confirm != JOptionPane.YES_OPTION) {
+                return;
+            }
+        }
+        final AvatarNormalizer normalizer = new AvatarNormalizer(maxBytes, maxPixels, JPEG_QUALITY);
+
+        report.setText((dryRun ? "Dry run" : "Normalising") + " avatars on " + backendName
+                + " (over " + maxKbSpinner.getValue() + " KB or " + maxPixels + " px)\n\n");
+        progressBar.setValue(0);
+        progressBar.setVisible(true);
+        cancelButton.setVisible(true);
+        statusLabel.setText("Listing users...");
+
+        worker = new SwingWorker<Void, Item>() {
+            private int total;
+            private int scanned;
+            private int oversized;
+            private int shrunk;
+            private int uploaded;
+            private int failed;
+            private long bytesBefore;
+            private long bytesAfter;
+
+            @Override
+            protected Void doInBackground() throws Exception {
+                RequestScheduler scheduler = RequestScheduler.shared();
+                List<User> withAvatar = new ArrayList<>();
+                for (User u : scheduler.call(client, RequestScheduler.Priority.BULK, () -> client.listUsers(UserQuery.ACTIVE))) {
+                    if (u.getAvatarUrl() != null && !u.getAvatarUrl().trim().isEmpty()) withAvatar.add(u);
+                }
+                total = withAvatar.size();
+
+                BlockingQueue<Item> results = new LinkedBlockingQueue<>();
+                List<Future<Item>> futures = new ArrayList<>();
+                try {
+                    for (User u : withAvatar) {
+                        CompletableFuture<Item> f = scheduler.submit(client, RequestScheduler.Priority.BULK,
+                                () -> normalize(client, backendName, u, normalizer, dryRun));
+                        // every job posts exactly one item, even if it fails or is dropped, or take() below never returns
+                        f.whenComplete((item, error) -> results.add(item != null ? item : failedItem(u, error)));
+                        futures.add(f);
+                    }
+                    for (int done = 1; done <= futures.size(); done++) {
+                        publish(results.take());
+                        setProgress(done * 100 / futures.size());
+                    }
+                } finally {
+                    // on cancel, queued work is dropped; an upload already sent completes on the server
+                    for (Future<Item> f : futures) f.cancel(true);
+                }
+                return null;
+            }
+
+            @Override
+            protected void process(List<Item> chunk) {
+                for (Item item : chunk) {
+                    scanned++;
+                    if (item.error != null) {
+                        failed++;
+                        report.append(String.format("%-24s failed: %s%n", item.user, item.error));
+                        continue;
+                    }
+                    AvatarNormalizer.Result r = item.result;
+                    if (r.outcome == AvatarNormalizer.Outcome.UNDER_THRESHOLD) continue;
+                    oversized++;
+                    if (item.uploaded) uploaded++;
+                    if (r.outcome == AvatarNormalizer.Outcome.SHRINK && (dryRun || item.uploaded)) {
+                        shrunk++;
+                        bytesBefore += r.bytes;
+                        bytesAfter += r.encoded.length;
+                    }
+                    report.append(String.format("%-24s %s %dx%d %s -> %s%n", item.user, r.format, r.width, r.height,
+                            size(r.bytes), describe(r, item, dryRun)));
+                }
+                statusLabel.setText("Scanned " + scanned + "/" + total);
+            }
+
+            @Override
+            protected void done() {
+                progressBar.setVisible(false);
+                cancelButton.setVisible(false);
+                String summary = (dryRun ? "Would shrink " : "Shrunk ") + shrunk + " of " + oversized
+                        + " oversized avatar(s), " + scanned + "/" + total + " scanned";
+                if (bytesBefore > 0) {
+                    summary += String.format(", %s -> %s (-%d%%)", size(bytesBefore), size(bytesAfter),
+                            100 - bytesAfter * 100 / bytesBefore);
+                }
+                if (failed > 0) summary += ", " + failed + " failed";
+                if (isCancelled()) {
+                    summary += " (cancelled)";
+                } else {
+                    try {
+                        get();
+                    } catch (Exception e) {
+                        summary = "Scan failed: " + (e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+                    }
+                }
+                report.append("\n" + summary + "\n");
+                statusLabel.setText(summary);
+                updateButtons();
+                if (uploaded > 0 && loggedIn) onAvatarsReplaced.run();
+            }
+        };
+        worker.addPropertyChangeListener(evt -> {
+            if ("progress".equals(evt.getPropertyName())) progressBar.setValue((Integer) evt.getNewValue());
+        });
+        worker.execute();
+        updateButtons();
+    }
+
+    /** Fetch, inspect and (unless dry run) replace one avatar; runs as one bulk job and never throws. */
+    private Item normalize(AdminClient client, String backendName, User u, AvatarNormalizer normalizer, boolean dryRun) {
+        Item item = new Item(u.getUsername());
+        try {
+            byte[] bytes = client.fetchBytesFromUrl(u.getAvatarUrl(), MAX_SOURCE_BYTES);
+            if (bytes == null || bytes.length == 0) throw new IOException("empty response");
+            item.result = normalizer.process(bytes);
+            if (dryRun || item.result.outcome != AvatarNormalizer.Outcome.SHRINK || Thread.currentThread().isInterrupted()) {
+                return item;
+            }
+            AvatarNormalizer.Result r = item.result;
+            String detail = r.format + " " + r.bytes + " B -> " + r.newFormat + " " + r.encoded.length + " B";
+            try {
+                client.uploadAvatar(u.getId(), "avatar-" + u.getId() + r.extension(), r.contentType(), new ByteArrayInputStream(r.encoded));
+                item.uploaded = true;
+                audit.record(AuditJournal.ACTION_REPLACE_AVATAR, client.getCurrentUsername(), backendName, u.getId(), detail, true);
+            } catch (Exception e) {
+                audit.record(AuditJournal.ACTION_REPLACE_AVATAR, client.getCurrentUsername(), backendName, u.getId(), detail + ": " + e.getMessage(), false);
+                throw e;
+            }
+        } catch (Exception e) {
+            item.error = e.getMessage();
+        }
+        return item;
+    }
+
+    private static Item failedItem(User u, Throwable error) {
+        Item item = new Item(u.getUsername());
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        item.error = cause instanceof CancellationException ? "cancelled" : String.valueOf(cause.getMessage());
+        return item;
+    }
+
+    private static String describe(AvatarNormalizer.Result r, Item item, boolean dryRun) {
+        switch (r.outcome) {
+            case SHRINK:
+                String target = r.newFormat + " " + r.newWidth + "x" + r.newHeight + " " + size(r.encoded.length);
+                if (dryRun) return target;
+                return item.uploaded ? target + " (uploaded)" : target + " (not uploaded, cancelled)";
+            case NO_GAIN:
+                return "kept, " + r.message;
+            default:
+                return "skipped, " + r.message;
+        }
+    }
+
+    private static String size(long bytes) {
+        return bytes < 1024 * 1024 ? String.format("%.1f KB", bytes / 1024.0) : String.format("%.2f MB", bytes / (1024.0 * 1024.0));
+    }
+}
@@ -0,0 +1,326 @@
+package pccit.finalproject.javaclient;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+/**
+ * Finds oversized avatars and shrinks them: anything larger than {@code maxBytes} or wider/taller than
+ * {@code maxPixels} is decoded (subsampled while reading when it is far too large, so a huge image never
+ * lands in memory at full size), downscaled to fit {@code maxPixels} and re-encoded as JPEG, or PNG when
+ * it has transparency. The backend only accepts those two formats, so WebP sources are converted.
+ * A result that is not smaller than the original is not worth uploading.
+ * <p>
+ * Re-encoding drops metadata, so an EXIF orientation is applied to the pixels first, and images with an
+ * embedded ICC colour profile are skipped rather than silently shifted to sRGB.
+ */
+public class AvatarNormalizer {
+    /** Refuse to decode sources above this many pixels even with subsampling (e.g. a decompression bomb). */
+    private static final long MAX_SOURCE_PIXELS = 100_000_000L;
+    /** The backend rejects uploads above 5 MB. */
+    public static final int MAX_UPLOAD_BYTES = 5 * 1024 * 1024;
+
+    public enum Outcome { UNDER_THRESHOLD, SHRINK, NO_GAIN, SKIPPED, UNREADABLE }
+
+    private final int maxBytes;
+    private final int maxPixels;
+    private final float jpegQuality;
+
+    public AvatarNormalizer(int maxBytes, int maxPixels, float jpegQuality) {
+        this.maxBytes = maxBytes;
+        this.maxPixels = maxPixels;
+        this.jpegQuality = jpegQuality;
+    }
+
+    /** What was found for one avatar and, for {@link Outcome#SHRINK}, the bytes to upload. */
+    public static final class Result {
+        public final Outcome outcome;
+        public final String format;
+        public final int width;
+        public final int height;
+        public final int bytes;
+        public String newFormat;
+        public int newWidth;
+        public int newHeight;
+        public byte[] encoded;
+        public String message;
+
+        Result(Outcome outcome, String format, int width, int height, int bytes) {
+            this.outcome = outcome;
+            this.format = format;
+            this.width = width;
+            this.height = height;
+            this.bytes = bytes;
+        }
+
+        Result with(Outcome outcome, String message) {
+            Result r = new Result(outcome, format, width, height, bytes);
+            r.newFormat = newFormat;
+            r.newWidth = newWidth;
+            r.newHeight = newHeight;
+            r.encoded = encoded;
+            r.message = message;
+            return r;
+        }
+
+        /** MIME type and file extension of {@link #encoded}. */
+        public String contentType() {
+            return "png".equals(newFormat) ? "image/png" : "image/jpeg";
+        }
+
+        public String extension() {
+            return "png".equals(newFormat) ? ".png" : ".jpg";
+        }
+    }
+
+    /** Inspect {@code data} and, if it is over a threshold, produce a smaller re-encoding. */
+    public Result process(byte[] data) throws IOException {
+        StartupWarmup.awaitImagePlugins();
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                Result unknown = new Result(Outcome.UNREADABLE, "?", 0, 0, data.length);
+                unknown.message = "unknown format";
+                return unknown;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                // header only: most avatars are under both thresholds and never get decoded
+                int w = reader.getWidth(0);
+                int h = reader.getHeight(0);
+                Result found = new Result(Outcome.UNDER_THRESHOLD, reader.getFormatName().toLowerCase(), w, h, data.length);
+                if (data.length <= maxBytes && w <= maxPixels && h <= maxPixels) return found;
+                if ((long) w * h > MAX_SOURCE_PIXELS) return found.with(Outcome.UNREADABLE, "too large to decode");
+                Tags tags = Tags.read(data);
+                if (tags.iccProfile) return found.with(Outcome.SKIPPED, "has an embedded colour profile");
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                // keep at least twice the target size so the final downscale is still smooth
+                int step = Math.max(1, Math.max(w, h) / (2 * maxPixels));
+                if (step > 1) param.setSourceSubsampling(step, step, 0, 0);
+                BufferedImage img = reader.read(0, param);
+                return shrink(found, img, tags.orientation);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private Result shrink(Result found, BufferedImage img, int orientation) throws IOException {
+        double scale = Math.min(1.0, (double) maxPixels / Math.max(img.getWidth(), img.getHeight()));
+        int tw = Math.max(1, (int) Math.round(img.getWidth() * scale));
+        int th = Math.max(1, (int) Math.round(img.getHeight() * scale));
+        boolean alpha = hasTransparency(img);
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage scaled = orient(downscale(img, tw, th, type), orientation, type);
+
+        Result r = found.with(Outcome.SHRINK, null);
+        r.newFormat = alpha ? "png" : "jpeg";
+        r.newWidth = scaled.getWidth();
+        r.newHeight = scaled.getHeight();
+        r.encoded = alpha ? encodePng(scaled) : encodeJpeg(scaled);
+        if (r.encoded.length >= found.bytes) return r.with(Outcome.NO_GAIN, "re-encoding is not smaller");
+        if (r.encoded.length > MAX_UPLOAD_BYTES) return r.with(Outcome.NO_GAIN, "still over the 5 MB upload limit");
+        return r;
+    }
+
+    /** Halve with bilinear filtering until close to the target, then do the last step; sharper than one big bilinear jump. */
+    private static BufferedImage downscale(BufferedImage src, int tw, int th, int type) {
+        BufferedImage cur = src;
+        int w = src.getWidth();
+        int h = src.getHeight();
+        do {
+            w = Math.max(tw, w / 2);
+            h = Math.max(th, h / 2);
+            BufferedImage next = new BufferedImage(w, h, type);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(cur, 0, 0, w, h, null);
+            } finally {
+                g.dispose();
+            }
+            cur = next;
+        } while (w != tw || h != th);
+        return cur;
+    }
+
+    /** Rotate / mirror {@code img} as EXIF orientation 2..8 asks, so the upright picture survives re-encoding. */
+    static BufferedImage orient(BufferedImage img, int orientation, int type) {
+        int w = img.getWidth();
+        int h = img.getHeight();
+        AffineTransform t;
+        switch (orientation) {
+            case 2: t = new AffineTransform(-1, 0, 0, 1, w, 0); break;   // mirrored
+            case 3: t = new AffineTransform(-1, 0, 0, -1, w, h); break;  // upside down
+            case 4: t = new AffineTransform(1, 0, 0, -1, 0, h); break;   // flipped
+            case 5: t = new AffineTransform(0, 1, 1, 0, 0, 0); break;    // transposed
+            case 6: t = new AffineTransform(0, 1, -1, 0, h, 0); break;   // rotate 90 clockwise
+            case 7: t = new AffineTransform(0, -1, -1, 0, h, w); break;  // transversed
+            case 8: t = new AffineTransform(0, -1, 1, 0, 0, w); break;   // rotate 90 counter-clockwise
+            default: return img;
+        }
+        BufferedImage out = orientation >= 5 ? new BufferedImage(h, w, type) : new BufferedImage(w, h, type);
+        Graphics2D g = out.createGraphics();
+        try {
+            g.drawImage(img, t, null);
+        } finally {
+            g.dispose();
+        }
+        return out;
+    }
+
+    /** True if any pixel is not fully opaque; an alpha channel that is all 0xFF is encoded as JPEG. */
+    private static boolean hasTransparency(BufferedImage img) {
+        if (!img.getColorModel().hasAlpha()) return false;
+        int w = img.getWidth();
+        int[] row = new int[w];
+        for (int y = 0; y < img.getHeight(); y++) {
+            img.getRGB(0, y, w, 1, row, 0, w);
+            for (int argb : row) {
+                if ((argb >>> 24) != 0xFF) return true;
+            }
+        }
+        return false;
+    }
+
+    private byte[] encodeJpeg(BufferedImage img) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(baos)) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(img, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return baos.toByteArray();
+    }
+
+    private static byte[] encodePng(BufferedImage img) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        if (!ImageIO.write(img, "png", baos)) throw new IOException("No PNG writer available");
+        return baos.toByteArray();
+    }
+
+    /**
+     * The metadata that re-encoding would lose: EXIF orientation and whether an ICC profile is embedded.
+     * Only the container framing is walked (JPEG segments, PNG chunks, WebP RIFF chunks); anything
+     * malformed reads as "upright, no profile".
+     */
+    static final class Tags {
+        int orientation = 1;
+        boolean iccProfile;
+
+        static Tags read(byte[] d) {
+            Tags t = new Tags();
+            try {
+                if (d.length > 2 && (d[0] & 0xFF) == 0xFF && (d[1] & 0xFF) == 0xD8) t.readJpeg(d);
+                else if (d.length > 8 && (d[0] & 0xFF) == 0x89 && startsWith(d, 1, "PNG")) t.readPng(d);
+                else if (d.length > 12 && startsWith(d, 0, "RIFF") && startsWith(d, 8, "WEBP")) t.readWebp(d);
+            } catch (IndexOutOfBoundsException e) {
+                // truncated metadata; the decoder will have its own opinion about the pixels
+            }
+            return t;
+        }
+
+        private void readJpeg(byte[] d) {
+            int i = 2;
+            while (i + 4 <= d.length && (d[i] & 0xFF) == 0xFF) {
+                int marker = d[i + 1] & 0xFF;
+                if (marker == 0xFF) { // fill byte
+                    i++;
+                    continue;
+                }
+                if (marker == 0xDA || marker == 0xD9) return; // image data follows, no more metadata
+                int len = u16(d, i + 2, true);
+                int body = i + 4;
+                if (marker == 0xE1 && startsWith(d, body, "Exif\0\0")) readTiff(d, body + 6);
+                if (marker == 0xE2 && startsWith(d, body, "ICC_PROFILE\0")) iccProfile = true;
+                i += 2 + len;
+            }
+        }
+
+        private void readPng(byte[] d) {
+            int i = 8;
+            while (i + 8 <= d.length) {
+                int len = (int) u32(d, i, true);
+                if (len < 0 || len > d.length) return;
+                if (startsWith(d, i + 4, "IDAT")) return;
+                if (startsWith(d, i + 4, "iCCP")) iccProfile = true;
+                if (startsWith(d, i + 4, "eXIf")) readTiff(d, i + 8);
+                i += 12 + len;
+            }
+        }
+
+        private void readWebp(byte[] d) {
+            int i = 12;
+            while (i + 8 <= d.length) {
+                long len = u32(d, i + 4, false);
+                if (startsWith(d, i, "ICCP")) iccProfile = true;
+                if (startsWith(d, i, "EXIF")) readTiff(d, startsWith(d, i + 8, "Exif\0\0") ? i + 14 : i + 8);
+                if (len > d.length) return;
+                i += 8 + (int) len + (int) (len & 1);
+            }
+        }
+
+        /** Orientation (tag 0x0112) from IFD0 of the TIFF structure at {@code base}. */
+        private void readTiff(byte[] d, int base) {
+            boolean bigEndian;
+            if (startsWith(d, base, "MM")) bigEndian = true;
+            else if (startsWith(d, base, "II")) bigEndian = false;
+            else return;
+            long ifd = u32(d, base + 4, bigEndian);
+            if (ifd < 8 || ifd > d.length) return;
+            int at = base + (int) ifd;
+            int entries = u16(d, at, bigEndian);
+            for (int e = 0; e < entries; e++) {
+                int entry = at + 2 + e * 12;
+                if (u16(d, entry, bigEndian) == 0x0112) {
+                    int value = u16(d, entry + 8, bigEndian);
+                    if (value >= 1 && value <= 8) orientation = value;
+                    return;
+                }
+            }
+        }
+
+        private static boolean startsWith(byte[] d, int at, String ascii) {
+            byte[] p = ascii.getBytes(StandardCharsets.ISO_8859_1);
+            if (at < 0 || at + p.length > d.length) return false;
+            for (int k = 0; k < p.length; k++) {
+                if (d[at + k] != p[k]) return false;
+            }
+            return true;
+        }
+
+        private static int u16(byte[] d, int at, boolean bigEndian) {
+            int a = d[at] & 0xFF;
+            int b = d[at + 1] & 0xFF;
+            return bigEndian ? (a << 8) | b : (b << 8) | a;
+        }
+
+        private static long u32(byte[] d, int at, boolean bigEndian) {
+            long hi = u16(d, bigEndian ? at : at + 2, bigEndian);
+            long lo = u16(d, bigEndian ? at + 2 : at, bigEndian);
+            return (hi << 16) | lo;
+        }
+    }
+}
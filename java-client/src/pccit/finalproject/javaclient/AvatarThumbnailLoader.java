@@ -0,0 +1,174 @@
+package pccit.finalproject.javaclient;
+
+import javax.imageio.ImageIO;
+import javax.swing.Icon;
+import javax.swing.ImageIcon;
+import javax.swing.SwingUtilities;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
+
+/**
+ * Loads avatar thumbnails for the user table, but only for rows that are actually on screen.
+ * <p>
+ * {@link #visibleRowsChanged(int[])} is fed by a {@link VisibleRowTracker}: thumbnails for newly visible
+ * rows are queued, and queued or running requests for rows that scrolled away are cancelled. When a
+ * thumbnail is ready only its own cell is repainted. All bookkeeping is EDT-confined; the pool threads
+ * only fetch and decode.
+ * <p>
+ * Decoded thumbnails are kept off-heap in a {@link ThumbnailStore}, so scrolling back through tens of
+ * thousands of rows does not refetch them and does not grow the heap.
+ * <p>
+ * A failed fetch is retried after a backoff if the row is still on screen; only a 4xx response or an
+ * undecodable image marks the avatar as missing for good (see {@link FailureBackoff}).
+ */
+public class AvatarThumbnailLoader implements VisibleRowTracker.Listener {
+    // -Dadminclient.thumbnailSlots; at 32 px each slot is 4 KB of direct memory
+    private static final int MAX_CACHED = Integer.getInteger("adminclient.thumbnailSlots", 16_384);
+
+    private final BackendGroup backends;
+    private final UserTableModel model;
+    private final int thumbSize;
+    private final Icon placeholder;
+    private final Icon missing;
+
+    private final Map<Long, Future<?>> inFlight = new HashMap<>();
+    private int[] visible = new int[0]; // last rows reported by the tracker, re-checked when a retry is due
+    private final FailureBackoff<Long> failed = new FailureBackoff<>(() -> visibleRowsChanged(visible));
+    private final ThumbnailStore cache;
+
+    public AvatarThumbnailLoader(BackendGroup backends, UserTableModel model, int thumbSize) {
+        this.backends = backends;
+        this.model = model;
+        this.thumbSize = thumbSize;
+        this.cache = new ThumbnailStore(thumbSize, MAX_CACHED);
+        this.placeholder = createCircleIcon(new Color(235, 235, 235));
+        this.missing = createCircleIcon(Color.LIGHT_GRAY);
+    }
+
+    public int getThumbSize() {
+        return thumbSize;
+    }
+
+    /**
+     * Icon to paint for a row key ({@link UserStore#getKey}) right now: the thumbnail if loaded,
+     * otherwise a placeholder. EDT only.
+     */
+    public Icon iconFor(long key) {
+        Icon icon = cache.iconFor(key);
+        if (icon != null) return icon;
+        return failed.hasFailed(key) ? missing : placeholder;
+    }
+
+    @Override
+    public void visibleRowsChanged(int[] modelRows) {
+        visible = modelRows;
+        Set<Long> wanted = new HashSet<>();
+        for (int row : modelRows) {
+            if (row >= model.getRowCount()) continue;
+            if (model.getIdAt(row) == UserStore.NO_ID) continue;
+            long key = model.getKeyAt(row);
+            wanted.add(key);
+            if (!cache.contains(key) && !failed.isBlocked(key) && !inFlight.containsKey(key)) {
+                submit(key, model.getAvatarUrlAt(row), row);
+            }
+        }
+        // drop work for rows that are no longer on screen
+        for (Iterator<Map.Entry<Long, Future<?>>> it = inFlight.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Long, Future<?>> e = it.next();
+            if (!wanted.contains(e.getKey())) {
+                e.getValue().cancel(true);
+                it.remove();
+            }
+        }
+    }
+
+    /** Forget everything (e.g. on logout or when the user list is replaced). EDT only. */
+    public void clear() {
+        for (Future<?> f : inFlight.values()) f.cancel(true);
+        inFlight.clear();
+        cache.clear();
+        failed.clear();
+    }
+
+    private void submit(long key, String avatarUrl, int rowHint) {
+        // avatars are fetched from the backend that owns the row
+        AdminClient client = backends.clientFor(UserStore.sourceOfKey(key));
+        long id = UserStore.idOfKey(key);
+        // visible-row priority: behind the selected profile, ahead of bulk work
+        Future<?> f = RequestScheduler.shared().submit(client, RequestScheduler.Priority.VISIBLE, () -> {
+            BufferedImage thumb = null;
+            boolean permanent = true; // no bytes or undecodable, unless the fetch itself failed
+            try {
+                byte[] bytes = (avatarUrl != null && !avatarUrl.trim().isEmpty())
+                        ? client.fetchBytesFromUrl(avatarUrl)
+                        : client.fetchAvatarById(Long.toString(id));
+                if (Thread.currentThread().isInterrupted()) return null;
+                thumb = decodeThumbnail(bytes);
+            } catch (IOException e) {
+                // leave thumb null, the cell falls back to the "missing" placeholder
+                permanent = AdminClient.isPermanentFailure(e);
+            }
+            final BufferedImage result = thumb;
+            final boolean gone = permanent;
+            SwingUtilities.invokeLater(() -> onLoaded(key, result, gone, rowHint));
+            return null;
+        });
+        inFlight.put(key, f);
+    }
+
+    private void onLoaded(long key, BufferedImage thumb, boolean permanent, int rowHint) {
+        if (inFlight.remove(key) == null) return; // cancelled or cleared meanwhile
+        if (thumb != null) {
+            cache.put(key, thumb); // copied off-heap; the decoded image becomes garbage
+            failed.succeeded(key);
+        } else {
+            failed.failed(key, permanent);
+        }
+
+        int row = (rowHint < model.getRowCount() && model.getKeyAt(rowHint) == key) ? rowHint : model.indexOfKey(key);
+        if (row >= 0) model.fireTableCellUpdated(row, UserTableModel.AVATAR_COLUMN);
+    }
+
+    private BufferedImage decodeThumbnail(byte[] bytes) throws IOException {
+        if (bytes == null || bytes.length == 0) return null;
+        StartupWarmup.awaitImagePlugins();
+        BufferedImage img = ImageIO.read(new ByteArrayInputStream(bytes));
+        if (img == null) return null;
+        // scale once into a small ARGB image; painting it is then a plain blit
+        BufferedImage thumb = new BufferedImage(thumbSize, thumbSize, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = thumb.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(img, 0, 0, thumbSize, thumbSize, null);
+        } finally {
+            g.dispose();
+        }
+        return thumb;
+    }
+
+    private Icon createCircleIcon(Color fill) {
+        BufferedImage img = new BufferedImage(thumbSize, thumbSize, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2 = img.createGraphics();
+        try {
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setColor(fill);
+            g2.fillOval(0, 0, thumbSize, thumbSize);
+            g2.setColor(Color.GRAY);
+            g2.drawOval(0, 0, thumbSize - 1, thumbSize - 1);
+        } finally {
+            g2.dispose();
+        }
+        return new ImageIcon(img);
+    }
+}
@@ -0,0 +1,92 @@
+package pccit.finalproject.javaclient;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The set of blog backends (e.g. regional instances) the admin client talks to, each with its own
+ * {@link AdminClient} session. A backend's position in the group is its "source" index, which the
+ * merged user table stores per row to route avatar fetches and deletes back to the owning backend.
+ */
+public class BackendGroup {
+    /** One backend: a short display name plus its session. */
+    public static class Backend {
+        private final String name;
+        private final AdminClient client;
+
+        public Backend(String name, AdminClient client) {
+            this.name = name;
+            this.client = client;
+        }
+
+        public String getName() { return name; }
+        public AdminClient getClient() { return client; }
+    }
+
+    private final List<Backend> backends;
+
+    public BackendGroup(List<Backend> backends) {
+        if (backends.isEmpty()) throw new IllegalArgumentException("At least one backend is required");
+        if (backends.size() > UserStore.MAX_SOURCES) {
+            throw new IllegalArgumentException("At most " + UserStore.MAX_SOURCES + " backends are supported");
+        }
+        this.backends = Collections.unmodifiableList(new ArrayList<>(backends));
+    }
+
+    /**
+     * Build a group from backend specs of the form {@code url} or {@code name=url}.
+     * Without an explicit name the URL's host[:port] is used.
+     */
+    public static BackendGroup fromSpecs(List<String> specs) {
+        List<Backend> list = new ArrayList<>();
+        for (String spec : specs) {
+            if (spec == null || spec.trim().isEmpty()) continue;
+            String s = spec.trim();
+            String name = null;
+            int eq = s.indexOf('=');
+            if (eq > 0 && !s.substring(0, eq).contains("://")) {
+                name = s.substring(0, eq).trim();
+                s = s.substring(eq + 1).trim();
+            }
+            if (name == null || name.isEmpty()) name = defaultName(s);
+            list.add(new Backend(name, new AdminClient(s)));
+        }
+        return new BackendGroup(list);
+    }
+
+    public int size() { return backends.size(); }
+    public boolean isMulti() { return backends.size() > 1; }
+    public Backend get(int source) { return backends.get(source); }
+    public AdminClient clientFor(int source) { return backends.get(source).getClient(); }
+    public List<Backend> all() { return backends; }
+
+    public String[] names() {
+        String[] names = new String[backends.size()];
+        for (int i = 0; i < names.length; i++) names[i] = backends.get(i).getName();
+        return names;
+    }
+
+    public boolean isAnyLoggedIn() {
+        for (Backend b : backends) {
+            if (b.getClient().isLoggedIn()) return true;
+        }
+        return false;
+    }
+
+    /** Local logout of every session. */
+    public void logoutAll() {
+        for (Backend b : backends) b.getClient().logout();
+    }
+
+    private static String defaultName(String url) {
+        try {
+            URL u = new URL(url);
+            return u.getPort() > 0 ? u.getHost() + ":" + u.getPort() : u.getHost();
+        } catch (MalformedURLException e) {
+            return url;
+        }
+    }
+}
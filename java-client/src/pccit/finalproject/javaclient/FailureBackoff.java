@@ -0,0 +1,80 @@
+package pccit.finalproject.javaclient;
+
+import javax.swing.Timer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Rows whose lazy load failed, for the visible-row loaders ({@link AvatarThumbnailLoader},
+ * {@link UserStatsLoader}, {@link ArticleDetailsLoader}).
+ * <p>
+ * A permanent failure ({@link AdminClient#isPermanentFailure}) blocks its key until {@link #clear()}. Any
+ * other failure blocks it for a backoff that starts at {@link #FIRST_DELAY_MS} and doubles per attempt up
+ * to {@link #MAX_DELAY_MS}; when the earliest backoff runs out {@code onRetryDue} is called, so the loader
+ * can re-request the rows that are still on screen. EDT-confined.
+ */
+final class FailureBackoff<K> {
+    static final long FIRST_DELAY_MS = 5_000;
+    static final long MAX_DELAY_MS = 120_000;
+
+    private final Map<K, Failure> failures = new HashMap<>();
+    private final Timer retryTimer;
+
+    FailureBackoff(Runnable onRetryDue) {
+        this.retryTimer = new Timer(0, e -> {
+            onRetryDue.run();
+            scheduleNext();
+        });
+        retryTimer.setRepeats(false);
+    }
+
+    /** True while {@code key} must not be requested again. */
+    boolean isBlocked(K key) {
+        Failure f = failures.get(key);
+        return f != null && f.retryAt > System.currentTimeMillis();
+    }
+
+    /** True if the last load of {@code key} failed, whether or not it may be retried yet. */
+    boolean hasFailed(K key) {
+        return failures.containsKey(key);
+    }
+
+    void failed(K key, boolean permanent) {
+        Failure f = failures.computeIfAbsent(key, k -> new Failure());
+        if (permanent) {
+            f.retryAt = Long.MAX_VALUE;
+            return;
+        }
+        long delay = Math.min(MAX_DELAY_MS, FIRST_DELAY_MS << Math.min(f.attempts, 16));
+        f.attempts++;
+        f.retryAt = System.currentTimeMillis() + delay;
+        scheduleNext();
+    }
+
+    void succeeded(K key) {
+        failures.remove(key);
+    }
+
+    void clear() {
+        failures.clear();
+        retryTimer.stop();
+    }
+
+    /** Arm the timer for the earliest pending retry, if any. */
+    private void scheduleNext() {
+        long now = System.currentTimeMillis();
+        long next = Long.MAX_VALUE;
+        for (Failure f : failures.values()) {
+            if (f.retryAt > now && f.retryAt < next) next = f.retryAt;
+        }
+        retryTimer.stop();
+        if (next == Long.MAX_VALUE) return;
+        retryTimer.setInitialDelay((int) Math.min(MAX_DELAY_MS, next - now));
+        retryTimer.start();
+    }
+
+    private static final class Failure {
+        int attempts;
+        long retryAt;
+    }
+}
@@ -0,0 +1,333 @@
+package pccit.finalproject.javaclient;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load generator that drives a backend through {@link AdminClient}, the same code path the admin UI uses.
+ * <p>
+ * N admin sessions are logged in up front. Operations then arrive <em>open loop</em> at a fixed rate: the
+ * i-th operation is due at {@code start + i / rate} whether or not earlier ones have finished, and each runs
+ * on its own (virtual, when the JVM has them) thread. Latency is measured from the due time rather than
+ * from when the request actually started, which corrects for coordinated omission: a stalled backend shows
+ * up as queueing delay instead of silently lowering the request rate.
+ * <p>
+ * Usage ({@code --name=value}, all optional):
+ * <pre>
+ *   --url=http://localhost:3000   backend to test, or "stub" for an in-process {@link StubBackend}
+ *   --user=admin --pass=...       admin credentials
+ *   --sessions=20                 concurrent admin sessions
+ *   --rate=50                     operations per second (open loop)
+ *   --duration=30                 seconds
+ *   --mix=list:1,avatar:8,login:1 relative weights of login, list, avatar and delete
+ *   --deletePrefix=loadtest_      delete only users whose username starts with this (delete is off unless set)
+ *   --stubUsers=5000 --stubThreads=16 --stubServiceMs=5   stub backend settings
+ * </pre>
+ */
+public class LoadGenerator {
+    private static final String[] OPS = {"login", "list", "avatar", "delete"};
+
+    private final Map<String, String> options;
+    private final Histogram[] corrected = new Histogram[OPS.length];
+    private final Histogram[] service = new Histogram[OPS.length];
+    private final AtomicLong[] errors = new AtomicLong[OPS.length];
+    private final AtomicLong inFlight = new AtomicLong();
+    private final AtomicLong maxInFlight = new AtomicLong();
+
+    private List<AdminClient> sessions;
+    private List<User> avatarTargets;
+    private List<User> deleteTargets;
+
+    public LoadGenerator(Map<String, String> options) {
+        this.options = options;
+        for (int i = 0; i < OPS.length; i++) {
+            corrected[i] = new Histogram();
+            service[i] = new Histogram();
+            errors[i] = new AtomicLong();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                System.err.println("Ignoring argument " + arg + " (expected --name=value)");
+                continue;
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        new LoadGenerator(options).run();
+    }
+
+    public void run() throws Exception {
+        StubBackend stub = null;
+        String url = opt("url", "http://localhost:3000");
+        if ("stub".equals(url)) {
+            stub = new StubBackend(0, intOpt("stubUsers", 5000), intOpt("stubThreads", 16), intOpt("stubServiceMs", 5));
+            url = stub.getBaseUrl();
+            System.out.println("Started stub backend at " + url);
+        }
+        try {
+            setUp(url);
+            drive();
+            report();
+            if (stub != null) System.out.println("Stub backend served " + stub.getDeletedCount() + " deletes");
+        } finally {
+            if (sessions != null) {
+                for (AdminClient c : sessions) {
+                    try {
+                        c.logoutServer();
+                    } catch (IOException ignored) {}
+                }
+            }
+            if (stub != null) stub.close();
+        }
+    }
+
+    private void setUp(String url) throws IOException {
+        int count = intOpt("sessions", 20);
+        String user = opt("user", "admin");
+        String pass = opt("pass", "Admin123!");
+        sessions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            AdminClient c = new AdminClient(url);
+            c.login(user, pass);
+            if (!c.isAdmin()) throw new IOException("User " + user + " is not an admin");
+            sessions.add(c);
+        }
+        // targets for avatar and delete flows come from one initial listing
+        List<User> users = sessions.get(0).listUsers();
+        avatarTargets = users;
+        deleteTargets = new ArrayList<>();
+        String prefix = options.get("deletePrefix");
+        if (prefix != null && !prefix.isEmpty()) {
+            for (User u : users) {
+                if (u.getUsername() != null && u.getUsername().startsWith(prefix)) deleteTargets.add(u);
+            }
+        }
+        System.out.println("Logged in " + count + " sessions against " + url + "; " + users.size() + " users, "
+                + deleteTargets.size() + " deletable");
+    }
+
+    /** Dispatch operations at the configured rate until the duration is over, then wait for stragglers. */
+    private void drive() throws InterruptedException {
+        double rate = Double.parseDouble(opt("rate", "50"));
+        long durationNanos = TimeUnit.SECONDS.toNanos(intOpt("duration", 30));
+        int[] cumulative = parseMix(opt("mix", "login:1,list:1,avatar:8,delete:0"));
+        if (deleteTargets.isEmpty()) cumulative = withoutDelete(cumulative);
+        long intervalNanos = (long) (1_000_000_000L / rate);
+
+        ExecutorService executor = newExecutor();
+        long start = System.nanoTime();
+        long nextReport = start + TimeUnit.SECONDS.toNanos(5);
+        long dispatched = 0;
+        for (long i = 0; ; i++) {
+            long due = start + i * intervalNanos;
+            if (due - start >= durationNanos) break;
+            long now;
+            while ((now = System.nanoTime()) < due) LockSupport.parkNanos(due - now);
+            int op = pick(cumulative);
+            executor.execute(() -> execute(op, due));
+            dispatched++;
+            if (now >= nextReport) {
+                System.out.printf("  %5.1fs dispatched=%d in-flight=%d%n", (now - start) / 1e9, dispatched, inFlight.get());
+                nextReport += TimeUnit.SECONDS.toNanos(5);
+            }
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(60, TimeUnit.SECONDS)) {
+            System.err.println("Some operations were still running after 60 s; they are not included");
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("Dispatched %d operations in %.1f s (target %.1f/s, max in flight %d)%n",
+                dispatched, elapsed / 1e9, rate, maxInFlight.get());
+    }
+
+    private void execute(int op, long dueNanos) {
+        long n = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(n, Math::max);
+        long started = System.nanoTime();
+        try {
+            perform(op);
+        } catch (Exception e) {
+            errors[op].incrementAndGet();
+        } finally {
+            long end = System.nanoTime();
+            corrected[op].record((end - dueNanos) / 1000);
+            service[op].record((end - started) / 1000);
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private void perform(int op) throws IOException {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        AdminClient session = sessions.get(rnd.nextInt(sessions.size()));
+        switch (OPS[op]) {
+            case "login": {
+                // a fresh client, so the shared sessions are not ended under other operations
+                AdminClient c = new AdminClient(session.getBaseUrl());
+                c.login(opt("user", "admin"), opt("pass", "Admin123!"));
+                c.logoutServer();
+                break;
+            }
+            case "list":
+                session.listUsersInto(new UserStore());
+                break;
+            case "avatar": {
+                if (avatarTargets.isEmpty()) return;
+                User u = avatarTargets.get(rnd.nextInt(avatarTargets.size()));
+                String avatarUrl = u.getAvatarUrl();
+                if (avatarUrl != null && !avatarUrl.trim().isEmpty()) session.fetchBytesFromUrl(avatarUrl);
+                else session.fetchAvatarById(u.getId());
+                break;
+            }
+            case "delete": {
+                User u;
+                synchronized (deleteTargets) {
+                    if (deleteTargets.isEmpty()) return;
+                    u = deleteTargets.remove(deleteTargets.size() - 1);
+                }
+                if (!session.deleteUserById(u.getId(), false)) throw new IOException("Delete rejected");
+                break;
+            }
+            default:
+                throw new IllegalStateException(OPS[op]);
+        }
+    }
+
+    private void report() {
+        System.out.println();
+        System.out.printf("%-7s %8s %7s %9s | %9s %9s %9s %9s %9s | %12s%n",
+                "op", "count", "errors", "ops/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "p99 service");
+        long seconds = Math.max(1, intOpt("duration", 30));
+        for (int i = 0; i < OPS.length; i++) {
+            Histogram h = corrected[i];
+            if (h.count() == 0) continue;
+            System.out.printf("%-7s %8d %7d %9.1f | %9.1f %9.1f %9.1f %9.1f %9.1f | %12.1f%n",
+                    OPS[i], h.count(), errors[i].get(), h.count() / (double) seconds,
+                    h.percentile(50) / 1000.0, h.percentile(90) / 1000.0, h.percentile(99) / 1000.0,
+                    h.percentile(99.9) / 1000.0, h.max() / 1000.0, service[i].percentile(99) / 1000.0);
+        }
+        System.out.println("Latencies are measured from each operation's scheduled start (coordinated-omission corrected);"
+                + " 'p99 service' is measured from the actual start.");
+    }
+
+    /** Virtual threads when the running JVM has them (Java 21+), otherwise a cached platform-thread pool. */
+    private static ExecutorService newExecutor() {
+        try {
+            ExecutorService ex = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            System.out.println("Using virtual threads");
+            return ex;
+        } catch (ReflectiveOperationException e) {
+            System.out.println("Virtual threads not available on this JVM, using platform threads");
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "load-op");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    private static int[] parseMix(String spec) {
+        int[] weights = new int[OPS.length];
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split(":");
+            int op = Arrays.asList(OPS).indexOf(kv[0].trim());
+            if (op < 0 || kv.length != 2) throw new IllegalArgumentException("Bad mix entry: " + part);
+            weights[op] = Integer.parseInt(kv[1].trim());
+        }
+        int[] cumulative = new int[OPS.length];
+        int sum = 0;
+        for (int i = 0; i < OPS.length; i++) cumulative[i] = (sum += weights[i]);
+        if (sum == 0) throw new IllegalArgumentException("Mix has no operations: " + spec);
+        return cumulative;
+    }
+
+    private static int[] withoutDelete(int[] cumulative) {
+        int d = Arrays.asList(OPS).indexOf("delete");
+        int[] copy = cumulative.clone();
+        copy[d] = d == 0 ? 0 : copy[d - 1];
+        if (copy[OPS.length - 1] == 0) throw new IllegalArgumentException("Only delete in the mix, but nothing is deletable");
+        return copy;
+    }
+
+    private static int pick(int[] cumulative) {
+        int r = ThreadLocalRandom.current().nextInt(cumulative[cumulative.length - 1]);
+        for (int i = 0; i < cumulative.length; i++) {
+            if (r < cumulative[i]) return i;
+        }
+        return cumulative.length - 1;
+    }
+
+    private String opt(String name, String def) {
+        return options.getOrDefault(name, def);
+    }
+
+    private int intOpt(String name, int def) {
+        return Integer.parseInt(opt(name, Integer.toString(def)));
+    }
+
+    /**
+     * Lock-free log-linear histogram of microsecond values: exact below 128, then 64 sub-buckets per power
+     * of two (under 1.6% error), up to about 50 days.
+     */
+    static final class Histogram {
+        private static final int SUB_BITS = 6;
+        private static final int SUB = 1 << SUB_BITS;
+        private final AtomicLongArray counts = new AtomicLongArray(64 * SUB);
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+
+        void record(long micros) {
+            long v = Math.max(0, micros);
+            counts.incrementAndGet(indexOf(v));
+            total.incrementAndGet();
+            max.accumulateAndGet(v, Math::max);
+        }
+
+        long count() {
+            return total.get();
+        }
+
+        long max() {
+            return max.get();
+        }
+
+        /** Upper bound of the bucket holding the given percentile. */
+        long percentile(double pct) {
+            long n = total.get();
+            if (n == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(pct / 100.0 * n));
+            long seen = 0;
+            for (int i = 0; i < counts.length(); i++) {
+                seen += counts.get(i);
+                if (seen >= rank) return Math.min(upperBound(i), max.get());
+            }
+            return max.get();
+        }
+
+        private static int indexOf(long v) {
+            if (v < 2 * SUB) return (int) v;
+            int shift = 63 - Long.numberOfLeadingZeros(v) - SUB_BITS;
+            return shift * SUB + (int) (v >>> shift);
+        }
+
+        private static long upperBound(int index) {
+            if (index < 2 * SUB) return index;
+            int shift = index / SUB - 1;
+            long mantissa = index - shift * SUB;
+            return ((mantissa + 1) << shift) - 1;
+        }
+    }
+}
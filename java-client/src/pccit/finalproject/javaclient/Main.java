@@ -3,10 +3,54 @@ package pccit.finalproject.javaclient;
 import javax.imageio.ImageIO;
 import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 public class Main {
 
     public static void main(String[] args) {
+        // Each argument (or each comma-separated entry of BACKEND_URL) is a backend, as "url" or "name=url"
+        List<String> specs = new ArrayList<>();
+        if (args != null) {
+            for (String arg : args) {
+                if (arg != null && !arg.isEmpty()) specs.add(arg);
+            }
+        }
+        if (specs.isEmpty()) {
+            String env = System.getenv("BACKEND_URL");
+            if (env != null && !env.isEmpty()) specs.addAll(Arrays.asList(env.split(",")));
+        }
+        if (specs.isEmpty()) specs.add("http://localhost:3000");
+
+        BackendGroup backends = BackendGroup.fromSpecs(specs);
+        AuditJournal audit = AuditJournal.openDefault();
+        System.out.println("Audit journal: " + audit.getPath());
+        for (BackendGroup.Backend b : backends.all()) {
+            System.out.println("Using backend URL: " + b.getClient().getBaseUrl() + " (" + b.getName() + ")");
+        }
+
+        // -Dadminclient.eagerStartup=true restores the old fully synchronous start-up
+        if (Boolean.getBoolean("adminclient.eagerStartup")) {
+            startEager(backends, audit);
+            return;
+        }
+
+        // Fast path: warm-up work runs in the background while the frame is built and shown
+        StartupWarmup warmup = new StartupWarmup();
+        warmup.start(backends);
+        SwingUtilities.invokeLater(() -> {
+            try {
+                UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
+            } catch (Exception ignored) {}
+
+            AdminFrame frame = new AdminFrame(backends, audit);
+            frame.setVisible(true);
+            warmup.mark("login-form-visible");
+        });
+    }
+
+    private static void startEager(BackendGroup backends, AuditJournal audit) {
         SwingUtilities.invokeLater(() -> {
             try {
                 UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
@@ -19,15 +63,9 @@ public class Main {
                 // non-fatal
                 System.err.println("ImageIO.scanForPlugins failed: " + t.getMessage());
             }
+            StartupWarmup.imagePluginsScanned();
 
-            String base = null;
-            if (args != null && args.length > 0 && args[0] != null && !args[0].isEmpty()) base = args[0];
-            if (base == null || base.isEmpty()) base = System.getenv("BACKEND_URL");
-            if (base == null || base.isEmpty()) base = "http://localhost:3000";
-            System.out.println("Using backend URL: " + base);
-
-            AdminClient client = new AdminClient(base);
-            AdminFrame frame = new AdminFrame(client);
+            AdminFrame frame = new AdminFrame(backends, audit);
             frame.setVisible(true);
         });
     }
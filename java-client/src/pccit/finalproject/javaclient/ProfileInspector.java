@@ -0,0 +1,258 @@
+package pccit.finalproject.javaclient;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Details of the selected user: profile fields, activity stats, article count and most recent articles.
+ * <p>
+ * {@link #inspect} starts one {@link Scope} that forks every request at once (profile, stats, article count,
+ * recent articles, avatar), so a full profile takes as long as the slowest call rather than their sum. Each
+ * section is rendered as soon as its own request completes. Selecting another user, clearing, or the
+ * {@link #DEADLINE_MS} deadline cancels whatever is still running in the scope; results of a cancelled
+ * scope are never rendered.
+ */
+public class ProfileInspector extends JPanel {
+    private static final long serialVersionUID = 1L;
+
+    private static final int RECENT_ARTICLES = 10;
+    private static final int DEADLINE_MS = 15_000;
+    private static final String LOADING = "...";
+
+    private final JLabel usernameValue = new JLabel();
+    private final JLabel realNameValue = new JLabel();
+    private final JLabel bornValue = new JLabel();
+    private final JLabel roleValue = new JLabel();
+    private final JLabel articlesValue = new JLabel();
+    private final JLabel activityValue = new JLabel();
+    private final JTextArea bioArea = new JTextArea(3, 18);
+    private final DefaultListModel<String> recentModel = new DefaultListModel<>();
+
+    private Scope current;
+
+    public ProfileInspector() {
+        super(new GridBagLayout());
+        bioArea.setEditable(false);
+        bioArea.setLineWrap(true);
+        bioArea.setWrapStyleWord(true);
+        bioArea.setOpaque(false);
+        JList<String> recentList = new JList<>(recentModel);
+        recentList.setVisibleRowCount(5);
+
+        GridBagConstraints c = new GridBagConstraints();
+        c.gridy = 0;
+        c.insets = new Insets(2, 4, 2, 4);
+        c.anchor = GridBagConstraints.NORTHWEST;
+        addRow(c, "Username:", usernameValue);
+        addRow(c, "Real name:", realNameValue);
+        addRow(c, "Born:", bornValue);
+        addRow(c, "Role:", roleValue);
+        addRow(c, "Articles:", articlesValue);
+        addRow(c, "Activity:", activityValue);
+        addRow(c, "Bio:", bioArea);
+        c.gridx = 0;
+        c.gridwidth = 2;
+        add(new JLabel("Recent articles:"), c);
+        c.gridy++;
+        c.weightx = 1;
+        c.weighty = 1;
+        c.fill = GridBagConstraints.BOTH;
+        add(new JScrollPane(recentList), c);
+        clear();
+    }
+
+    private void addRow(GridBagConstraints c, String label, JComponent value) {
+        c.gridx = 0;
+        c.weightx = 0;
+        c.fill = GridBagConstraints.NONE;
+        add(new JLabel(label), c);
+        c.gridx = 1;
+        c.weightx = 1;
+        c.fill = GridBagConstraints.HORIZONTAL;
+        add(value, c);
+        c.gridy++;
+    }
+
+    /**
+     * Fetch and show everything about {@code user} from the backend behind {@code client}. The avatar bytes
+     * (or the error, a {@link TimeoutException} if the deadline passed) are handed to {@code avatarSink} on the EDT,
+     * unless the scope was cancelled first.
+     */
+    public void inspect(AdminClient client, User user, BiConsumer<byte[], Exception> avatarSink) {
+        cancelCurrent();
+        resetFields(LOADING);
+        usernameValue.setText(user.getUsername());
+        final String id = user.getId();
+        final Scope scope = new Scope(client);
+        current = scope;
+
+        scope.fork(() -> client.getUserDetails(id), this::showDetails, this::detailsFailed);
+        scope.fork(() -> client.getUserStats(id),
+                s -> activityValue.setText(s.total_posts + " posts, " + s.total_likes + " likes received"),
+                e -> activityValue.setText(unavailable(e)));
+        scope.fork(() -> client.countArticlesByAuthor(id),
+                n -> articlesValue.setText(Integer.toString(n)),
+                e -> articlesValue.setText(unavailable(e)));
+        scope.fork(() -> recentArticles(client, id), this::showRecent,
+                e -> recentModel.addElement(unavailable(e)));
+        scope.fork(() -> {
+            String avatarUrl = user.getAvatarUrl();
+            byte[] bytes = (avatarUrl != null && !avatarUrl.trim().isEmpty())
+                    ? client.fetchBytesFromUrl(avatarUrl)
+                    : client.fetchAvatarById(id);
+            // decoding happens in the sink; make sure the background plugin scan is done
+            StartupWarmup.awaitImagePlugins();
+            return bytes;
+        }, bytes -> avatarSink.accept(bytes, null), e -> avatarSink.accept(null, e));
+        scope.startDeadline();
+    }
+
+    /** Cancel any running fetches and blank the fields. */
+    public void clear() {
+        cancelCurrent();
+        resetFields("");
+    }
+
+    private void cancelCurrent() {
+        if (current != null) current.cancel();
+        current = null;
+    }
+
+    private void resetFields(String text) {
+        for (JLabel l : new JLabel[] {usernameValue, realNameValue, bornValue, roleValue, articlesValue, activityValue}) {
+            l.setText(text);
+        }
+        bioArea.setText(text);
+        recentModel.clear();
+    }
+
+    private void showDetails(AdminClient.UserDetails d) {
+        realNameValue.setText(d.real_name != null ? d.real_name : "");
+        bornValue.setText(d.date_of_birth != null ? d.date_of_birth : "");
+        String role = Boolean.TRUE.equals(d.is_admin) ? "Admin" : "User";
+        roleValue.setText(Boolean.FALSE.equals(d.is_active) ? role + " (deleted)" : role);
+        bioArea.setText(d.description != null ? d.description : "");
+    }
+
+    private void detailsFailed(Exception e) {
+        for (JLabel l : new JLabel[] {realNameValue, bornValue}) l.setText("");
+        bioArea.setText("");
+        roleValue.setText(unavailable(e));
+    }
+
+    private void showRecent(List<Article> articles) {
+        recentModel.clear();
+        if (articles.isEmpty()) recentModel.addElement("(none)");
+        for (Article a : articles) recentModel.addElement(a.getTitle());
+    }
+
+    private static List<Article> recentArticles(AdminClient client, String authorId) throws Exception {
+        List<Article> recent = new ArrayList<>();
+        try {
+            client.listArticles(null, authorId, "date", "desc", a -> {
+                recent.add(a);
+                if (recent.size() >= RECENT_ARTICLES) throw new EnoughArticles();
+            });
+        } catch (EnoughArticles ignored) {
+            // stopped reading early; the connection is released by listArticles
+        }
+        return recent;
+    }
+
+    private static String unavailable(Exception e) {
+        return "unavailable (" + e.getMessage() + ")";
+    }
+
+    /** Thrown from the article sink to stop streaming once enough rows were read. */
+    private static final class EnoughArticles extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        EnoughArticles() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * All requests for one selection. Forks are started immediately; their completions are applied on the
+     * EDT in arrival order. EDT-confined apart from the fork bodies.
+     */
+    private final class Scope {
+        private final AdminClient client;
+        private final List<Fork<?>> forks = new ArrayList<>();
+        private final Timer deadline;
+        private int pending;
+        private boolean cancelled;
+
+        Scope(AdminClient client) {
+            this.client = client;
+            this.deadline = new Timer(DEADLINE_MS, e -> expire());
+            this.deadline.setRepeats(false);
+        }
+
+        <T> void fork(Callable<T> task, Consumer<T> onSuccess, Consumer<Exception> onFailure) {
+            Fork<T> fork = new Fork<>(onSuccess, onFailure);
+            forks.add(fork);
+            pending++;
+            // the admin is waiting for this: run ahead of prefetch and bulk work
+            fork.future = RequestScheduler.shared().submit(client, RequestScheduler.Priority.INTERACTIVE, () -> {
+                T value = null;
+                Exception error = null;
+                try {
+                    value = task.call();
+                } catch (Exception e) {
+                    error = e;
+                }
+                final T v = value;
+                final Exception err = error;
+                SwingUtilities.invokeLater(() -> complete(fork, v, err));
+                return null;
+            });
+        }
+
+        void startDeadline() {
+            deadline.start();
+        }
+
+        private <T> void complete(Fork<T> fork, T value, Exception error) {
+            if (cancelled || fork.done) return;
+            fork.done = true;
+            if (error == null) fork.onSuccess.accept(value);
+            else fork.onFailure.accept(error);
+            if (--pending == 0) deadline.stop();
+        }
+
+        /** Deadline hit: report the stragglers as timed out and stop them. */
+        private void expire() {
+            if (cancelled) return;
+            for (Fork<?> f : forks) {
+                if (!f.done) complete(f, null, new TimeoutException("timed out"));
+            }
+            cancel();
+        }
+
+        void cancel() {
+            cancelled = true;
+            deadline.stop();
+            for (Fork<?> f : forks) f.future.cancel(true);
+        }
+    }
+
+    private static final class Fork<T> {
+        final Consumer<T> onSuccess;
+        final Consumer<Exception> onFailure;
+        Future<?> future;
+        boolean done;
+
+        Fork(Consumer<T> onSuccess, Consumer<Exception> onFailure) {
+            this.onSuccess = onSuccess;
+            this.onFailure = onFailure;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package pccit.finalproject.javaclient;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Central gate for backend requests. Every request is submitted with a {@link Priority} and the backend
+ * it goes to; per backend ("host", the client's base URL) the scheduler
+ * <ul>
+ *   <li>runs queued requests highest priority first, FIFO within a priority;</li>
+ *   <li>caps concurrent requests at {@code maxPerHost}, and keeps headroom for higher priorities: visible-row
+ *       prefetch may use all but one slot, bulk work at most half, so a click on a profile never waits
+ *       behind a bulk delete;</li>
+ *   <li>applies a token-bucket rate limit to prefetch and bulk work (interactive requests are never delayed
+ *       by it, but do consume tokens, down to a debt of one burst).</li>
+ * </ul>
+ * The returned futures can be cancelled: a queued request is dropped, a running one is interrupted.
+ */
+public class RequestScheduler {
+    public enum Priority { INTERACTIVE, VISIBLE, BULK }
+
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+    // -Dadminclient.maxPerHost / -Dadminclient.ratePerHost (requests per second for non-interactive work)
+    private static final RequestScheduler SHARED = new RequestScheduler(
+            Integer.getInteger("adminclient.maxPerHost", 6), Integer.getInteger("adminclient.ratePerHost", 100));
+
+    private final int maxPerHost;
+    private final double tokensPerNano;
+    private final double burst;
+    private final Map<String, Lane> lanes = new HashMap<>();
+    private final ExecutorService workers = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "request-" + COUNTER.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "request-scheduler");
+        t.setDaemon(true);
+        return t;
+    });
+    private long sequence;
+
+    public RequestScheduler(int maxPerHost, int ratePerSecond) {
+        this.maxPerHost = Math.max(1, maxPerHost);
+        this.tokensPerNano = ratePerSecond / 1e9;
+        this.burst = Math.max(1, ratePerSecond / 2.0);
+    }
+
+    /** The scheduler shared by every component of the admin client. */
+    public static RequestScheduler shared() {
+        return SHARED;
+    }
+
+    /** Queue {@code task} for {@code client}'s backend. */
+    public <T> CompletableFuture<T> submit(AdminClient client, Priority priority, Callable<T> task) {
+        return submit(client.getBaseUrl(), priority, task);
+    }
+
+    public <T> CompletableFuture<T> submit(String host, Priority priority, Callable<T> task) {
+        Lane lane;
+        Job<T> job;
+        synchronized (this) {
+            lane = lanes.computeIfAbsent(host, h -> new Lane());
+            job = new Job<>(lane, priority, sequence++, task);
+            lane.queue.add(job);
+        }
+        dispatch(lane);
+        return job;
+    }
+
+    /**
+     * Run {@code task} through the scheduler and wait for it; for code that already runs on its own
+     * background thread. Interrupting the caller cancels the request.
+     */
+    public <T> T call(AdminClient client, Priority priority, Callable<T> task) throws IOException {
+        CompletableFuture<T> f = submit(client, priority, task);
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            f.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Request cancelled");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    /** Requests waiting (not yet running) for {@code host}. */
+    public synchronized int queued(String host) {
+        Lane lane = lanes.get(host);
+        return lane == null ? 0 : lane.queue.size();
+    }
+
+    private int capFor(Priority p) {
+        switch (p) {
+            case INTERACTIVE: return maxPerHost;
+            case VISIBLE: return Math.max(1, maxPerHost - 1);
+            default: return Math.max(1, maxPerHost / 2);
+        }
+    }
+
+    /** Start as many queued jobs of {@code lane} as caps and tokens allow. */
+    private void dispatch(Lane lane) {
+        synchronized (this) {
+            while (!lane.queue.isEmpty()) {
+                Job<?> head = lane.queue.peek();
+                if (head.isDone()) { // cancelled while queued
+                    lane.queue.poll();
+                    continue;
+                }
+                // the head has the highest priority, and lower priorities have lower caps
+                if (lane.running >= capFor(head.priority)) return;
+                long now = System.nanoTime();
+                lane.refill(now);
+                if (head.priority != Priority.INTERACTIVE && lane.tokens < 1) {
+                    scheduleWakeup(lane, (long) ((1 - lane.tokens) / tokensPerNano));
+                    return;
+                }
+                // interactive requests may run the bucket into debt, but at most one burst deep, so a click storm
+                // delays background work by a bounded time instead of starving it
+                lane.tokens = Math.max(lane.tokens - 1, -burst);
+                lane.queue.poll();
+                lane.running++;
+                workers.execute(() -> run(head));
+            }
+        }
+    }
+
+    private void scheduleWakeup(Lane lane, long delayNanos) {
+        if (lane.wakeupPending) return;
+        lane.wakeupPending = true;
+        timer.schedule(() -> {
+            synchronized (this) {
+                lane.wakeupPending = false;
+            }
+            dispatch(lane);
+        }, Math.max(delayNanos, 100_000), TimeUnit.NANOSECONDS);
+    }
+
+    private <T> void run(Job<T> job) {
+        try {
+            if (job.begin()) {
+                try {
+                    job.complete(job.task.call());
+                } catch (Throwable t) {
+                    job.completeExceptionally(t);
+                } finally {
+                    job.end();
+                }
+            }
+        } finally {
+            synchronized (this) {
+                job.lane.running--;
+            }
+            dispatch(job.lane);
+        }
+    }
+
+    private final class Lane {
+        final PriorityQueue<Job<?>> queue = new PriorityQueue<>();
+        int running;
+        double tokens = burst;
+        long refilledAt = System.nanoTime();
+        boolean wakeupPending;
+
+        void refill(long now) {
+            tokens = Math.min(burst, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+        }
+    }
+
+    private final class Job<T> extends CompletableFuture<T> implements Comparable<Job<?>> {
+        final Lane lane;
+        final Priority priority;
+        final long seq;
+        final Callable<T> task;
+        private Thread runner; // guarded by this job
+
+        Job(Lane lane, Priority priority, long seq, Callable<T> task) {
+            this.lane = lane;
+            this.priority = priority;
+            this.seq = seq;
+            this.task = task;
+        }
+
+        synchronized boolean begin() {
+            if (isDone()) return false;
+            runner = Thread.currentThread();
+            return true;
+        }
+
+        synchronized void end() {
+            runner = null;
+            Thread.interrupted(); // don't leak a late cancel into the next job on this thread
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                synchronized (this) {
+                    if (runner != null && mayInterruptIfRunning) runner.interrupt();
+                }
+                synchronized (RequestScheduler.this) {
+                    lane.queue.remove(this);
+                }
+            }
+            return cancelled;
+        }
+
+        @Override
+        public int compareTo(Job<?> o) {
+            if (priority != o.priority) return priority.compareTo(o.priority);
+            return Long.compare(seq, o.seq);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package pccit.finalproject.javaclient;
+
+import javax.imageio.ImageIO;
+import java.net.InetAddress;
+import java.net.URL;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background start-up work that used to run synchronously on the EDT before the frame was shown.
+ * <p>
+ * The ImageIO plugin scan, DNS resolution + pre-connect to the backend and Jackson warm-up all run
+ * concurrently on daemon threads while the admin is typing credentials. With
+ * {@code -Dadminclient.startupLog=true} each phase is reported in a "[startup]" timing log on stdout,
+ * relative to the start of {@code main}.
+ */
+public class StartupWarmup {
+    private static final CompletableFuture<Void> imagePlugins = new CompletableFuture<>();
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+    private static final boolean LOG = Boolean.getBoolean("adminclient.startupLog");
+
+    private final long startNanos = System.nanoTime();
+    private final ExecutorService executor = Executors.newFixedThreadPool(3, r -> {
+        Thread t = new Thread(r, "startup-warmup-" + COUNTER.incrementAndGet());
+        t.setDaemon(true);
+        t.setPriority(Thread.NORM_PRIORITY - 1); // never compete with the EDT painting the login form
+        return t;
+    });
+
+    /** Kick off all warm-up phases for every backend in the group; returns immediately. */
+    public void start(BackendGroup backends) {
+        CompletableFuture.runAsync(() -> timed("imageio-plugin-scan", () -> {
+            try {
+                ImageIO.scanForPlugins();
+                // touching the reader registry forces decoder SPI initialisation now rather than on first avatar
+                ImageIO.getImageReadersByFormatName("webp").hasNext();
+            } catch (Throwable t) {
+                // non-fatal
+                System.err.println("ImageIO.scanForPlugins failed: " + t.getMessage());
+            }
+        }), executor).whenComplete((v, t) -> imagePlugins.complete(null));
+
+        for (BackendGroup.Backend backend : backends.all()) {
+            AdminClient client = backend.getClient();
+            CompletableFuture.runAsync(() -> timed("backend-preconnect[" + backend.getName() + "]", () -> {
+                try {
+                    String host = new URL(client.getBaseUrl()).getHost();
+                    InetAddress.getAllByName(host);
+                    client.preconnect();
+                } catch (Exception e) {
+                    // backend may simply not be up yet; login will report the real error
+                    System.err.println("Backend pre-connect failed (" + backend.getName() + "): " + e.getMessage());
+                }
+            }), executor);
+        }
+
+        CompletableFuture.runAsync(() -> timed("jackson-warmup", () -> {
+            for (BackendGroup.Backend backend : backends.all()) backend.getClient().warmUpMapper();
+        }), executor);
+        executor.shutdown();
+    }
+
+    /** Log a phase mark (e.g. "frame-visible") relative to launch. */
+    public void mark(String phase) {
+        log(phase + " at +" + sinceStartMillis() + " ms");
+    }
+
+    /** Print a "[startup]" timing line if {@code adminclient.startupLog} is set. */
+    static void log(String message) {
+        if (LOG) System.out.println("[startup] " + message);
+    }
+
+    /**
+     * Block until the background ImageIO scan has finished (bounded), so avatar decoding never races it.
+     * Call from worker threads only, never from the EDT.
+     */
+    public static void awaitImagePlugins() {
+        try {
+            imagePlugins.get(5, TimeUnit.SECONDS);
+        } catch (Exception ignored) {
+            // decode anyway with whatever readers are registered
+        }
+    }
+
+    /** Used by the eager start-up path, which scans synchronously. */
+    static void imagePluginsScanned() {
+        imagePlugins.complete(null);
+    }
+
+    private void timed(String phase, Runnable r) {
+        long t0 = System.nanoTime();
+        try {
+            r.run();
+        } finally {
+            long took = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0);
+            log(phase + " took " + took + " ms (done at +" + sinceStartMillis() + " ms)");
+        }
+    }
+
+    private long sinceStartMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
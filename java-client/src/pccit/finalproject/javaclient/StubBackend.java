@@ -0,0 +1,186 @@
+package pccit.finalproject.javaclient;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal in-process stand-in for the Node backend, for load tests and local experiments without a
+ * database. Implements just what {@link AdminClient} needs for the admin flows:
+ * {@code POST /api/login}, {@code POST /api/logout}, {@code GET /api/users},
+ * {@code GET /api/users/:id/avatar} and {@code DELETE /api/users/:id}.
+ * <p>
+ * Requests are served by a fixed number of worker threads, each spending {@code serviceMillis} per
+ * request (plus the time to write the response), so the stub saturates like a real server does.
+ */
+public class StubBackend implements AutoCloseable {
+    private final HttpServer server;
+    private final ExecutorService workers;
+    private final int userCount;
+    private final long serviceMillis;
+    private final byte[] usersJson;
+    private final byte[] avatarPng;
+    private final AtomicInteger deleted = new AtomicInteger();
+
+    /**
+     * @param port          0 for any free port
+     * @param userCount     size of the user list returned by {@code /api/users}
+     * @param workerThreads concurrent requests the stub serves before queueing
+     * @param serviceMillis simulated processing time per request
+     */
+    public StubBackend(int port, int userCount, int workerThreads, long serviceMillis) throws IOException {
+        this.userCount = userCount;
+        this.serviceMillis = serviceMillis;
+        this.usersJson = buildUsers(userCount);
+        this.avatarPng = buildAvatar();
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 1024);
+        this.workers = Executors.newFixedThreadPool(workerThreads, r -> {
+            Thread t = new Thread(r, "stub-backend");
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(workers);
+        server.createContext("/api/login", ex -> handle(ex, () -> {
+            drain(ex.getRequestBody());
+            return json("{\"message\":\"Welcome back, admin!\",\"token\":\"stub-token\","
+                    + "\"user\":{\"id\":1,\"username\":\"admin\",\"is_admin\":1}}");
+        }));
+        server.createContext("/api/logout", ex -> handle(ex, () -> json("{\"message\":\"Logged out\"}")));
+        server.createContext("/api/users", ex -> handle(ex, () -> route(ex)));
+        server.start();
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public int getUserCount() {
+        return userCount;
+    }
+
+    /** Number of DELETE /api/users/:id requests served. */
+    public int getDeletedCount() {
+        return deleted.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        workers.shutdownNow();
+    }
+
+    private Response route(HttpExchange ex) throws IOException {
+        String path = ex.getRequestURI().getPath();
+        String method = ex.getRequestMethod();
+        if (path.equals("/api/users") || path.equals("/api/users/")) {
+            return json(usersJson);
+        }
+        if (path.endsWith("/avatar") && "GET".equals(method)) {
+            return new Response(200, "image/png", avatarPng);
+        }
+        if ("DELETE".equals(method)) {
+            deleted.incrementAndGet();
+            return json("{\"message\":\"User deleted\"}");
+        }
+        return new Response(404, "application/json", "{\"error\":\"Not found\"}".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private interface Handler {
+        Response handle() throws IOException;
+    }
+
+    private void handle(HttpExchange ex, Handler h) throws IOException {
+        try {
+            if (serviceMillis > 0) Thread.sleep(serviceMillis);
+            Response r = h.handle();
+            ex.getResponseHeaders().set("Content-Type", r.contentType);
+            ex.sendResponseHeaders(r.code, r.body.length);
+            try (OutputStream os = ex.getResponseBody()) {
+                os.write(r.body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            ex.close();
+        }
+    }
+
+    private static final class Response {
+        final int code;
+        final String contentType;
+        final byte[] body;
+
+        Response(int code, String contentType, byte[] body) {
+            this.code = code;
+            this.contentType = contentType;
+            this.body = body;
+        }
+    }
+
+    private static Response json(String body) {
+        return json(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Response json(byte[] body) {
+        return new Response(200, "application/json", body);
+    }
+
+    private static void drain(InputStream is) throws IOException {
+        byte[] buf = new byte[4096];
+        while (is.read(buf) != -1) {
+            // discard
+        }
+    }
+
+    private static byte[] buildUsers(int count) {
+        StringBuilder sb = new StringBuilder(count * 120).append('[');
+        for (int i = 1; i <= count; i++) {
+            if (i > 1) sb.append(',');
+            sb.append("{\"id\":").append(i)
+                    .append(",\"username\":\"user").append(i)
+                    .append("\",\"real_name\":\"Stub User ").append(i)
+                    .append("\",\"avatar_url\":null,\"is_admin\":").append(i == 1 ? 1 : 0)
+                    .append(",\"is_active\":1,\"article_count\":").append(i % 17).append('}');
+        }
+        return sb.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] buildAvatar() throws IOException {
+        BufferedImage img = new BufferedImage(128, 128, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+        try {
+            g.setColor(new Color(90, 140, 200));
+            g.fillRect(0, 0, 128, 128);
+            g.setColor(Color.WHITE);
+            g.fillOval(32, 24, 64, 64);
+        } finally {
+            g.dispose();
+        }
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ImageIO.write(img, "png", baos);
+        return baos.toByteArray();
+    }
+
+    /** Run the stub on its own: {@code StubBackend [port] [users] [threads] [serviceMillis]}. */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 3000;
+        int users = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+        long service = args.length > 3 ? Long.parseLong(args[3]) : 5;
+        StubBackend stub = new StubBackend(port, users, threads, service);
+        System.out.println("Stub backend listening on " + stub.getBaseUrl() + " with " + users + " users");
+    }
+}
@@ -0,0 +1,228 @@
+package pccit.finalproject.javaclient;
+
+import javax.swing.Icon;
+import java.awt.Component;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fixed-size ARGB thumbnails kept outside the Java heap, keyed by row key ({@link UserStore#getKey}).
+ * <p>
+ * Pixels live in direct-buffer slabs of {@link #SLOTS_PER_SLAB} slots each, allocated as the store fills
+ * up, so tens of thousands of thumbnails cost the GC almost nothing. When all slots are taken the
+ * least recently painted one is reused (clock / second-chance eviction). {@link #iconFor} returns an
+ * {@link Icon} whose image reads straight from the slab; there is one such icon per slot, created once.
+ * <p>
+ * EDT-confined: a slot may be overwritten by the next {@link #put}, so an icon is only valid for the
+ * paint it was fetched for.
+ */
+public class ThumbnailStore {
+    static final int SLOTS_PER_SLAB = 1024;
+    private static final long EMPTY = Long.MIN_VALUE; // never a valid row key (see UserStore.NO_ID)
+
+    private final int size;
+    private final int slotPixels;
+    private final int capacity;
+
+    private final List<IntBuffer> slabs = new ArrayList<>();
+    private final long[] slotKeys;
+    private final boolean[] referenced;
+    private final SlotIcon[] icons;
+    private int used;  // slots handed out so far (they are never returned, only reused)
+    private int hand;  // clock hand
+
+    // key -> slot, open addressing with linear probing
+    private final long[] tableKeys;
+    private final int[] tableSlots;
+    private final int mask;
+
+    public ThumbnailStore(int size, int capacity) {
+        this.size = size;
+        this.slotPixels = size * size;
+        this.capacity = capacity;
+        this.slotKeys = new long[capacity];
+        this.referenced = new boolean[capacity];
+        this.icons = new SlotIcon[capacity];
+        int tableSize = Integer.highestOneBit(Math.max(capacity, 8) * 2 - 1) << 1;
+        this.tableKeys = new long[tableSize];
+        this.tableSlots = new int[tableSize];
+        this.mask = tableSize - 1;
+        Arrays.fill(tableKeys, EMPTY);
+    }
+
+    public int size() {
+        return used;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /** Off-heap bytes currently reserved by slabs. */
+    public long reservedBytes() {
+        return (long) slabs.size() * SLOTS_PER_SLAB * slotPixels * 4;
+    }
+
+    public boolean contains(long key) {
+        return find(key) >= 0;
+    }
+
+    /** Paintable icon for {@code key}, or null if it is not stored. Marks the slot as recently used. */
+    public Icon iconFor(long key) {
+        int slot = find(key);
+        if (slot < 0) return null;
+        referenced[slot] = true;
+        if (icons[slot] == null) icons[slot] = new SlotIcon(slot);
+        return icons[slot];
+    }
+
+    /** Store a {@code size x size} TYPE_INT_ARGB image, evicting an old entry if the store is full. */
+    public void put(long key, BufferedImage thumb) {
+        if (thumb.getType() != BufferedImage.TYPE_INT_ARGB || thumb.getWidth() != size || thumb.getHeight() != size) {
+            throw new IllegalArgumentException("Expected a " + size + "x" + size + " ARGB image");
+        }
+        int slot = find(key);
+        if (slot < 0) {
+            slot = allocateSlot();
+            slotKeys[slot] = key;
+            insert(key, slot);
+        }
+        int[] pixels = ((DataBufferInt) thumb.getRaster().getDataBuffer()).getData();
+        IntBuffer slab = slabs.get(slot / SLOTS_PER_SLAB).duplicate();
+        slab.position((slot % SLOTS_PER_SLAB) * slotPixels);
+        slab.put(pixels, 0, slotPixels);
+        referenced[slot] = true;
+    }
+
+    /** Forget all entries; slabs are kept for reuse. */
+    public void clear() {
+        Arrays.fill(tableKeys, EMPTY);
+        Arrays.fill(slotKeys, 0, used, EMPTY);
+        Arrays.fill(referenced, false);
+        used = 0;
+        hand = 0;
+    }
+
+    private int allocateSlot() {
+        if (used < capacity) {
+            int slot = used++;
+            if (slot / SLOTS_PER_SLAB >= slabs.size()) {
+                int slots = Math.min(SLOTS_PER_SLAB, capacity - slabs.size() * SLOTS_PER_SLAB);
+                slabs.add(ByteBuffer.allocateDirect(slots * slotPixels * 4).order(ByteOrder.nativeOrder()).asIntBuffer());
+            }
+            return slot;
+        }
+        // second chance: skip (and clear) recently painted slots until an unreferenced one comes up
+        while (referenced[hand]) {
+            referenced[hand] = false;
+            hand = (hand + 1) % capacity;
+        }
+        int victim = hand;
+        hand = (hand + 1) % capacity;
+        remove(slotKeys[victim]);
+        return victim;
+    }
+
+    private int find(long key) {
+        for (int i = index(key); ; i = (i + 1) & mask) {
+            long k = tableKeys[i];
+            if (k == key) return tableSlots[i];
+            if (k == EMPTY) return -1;
+        }
+    }
+
+    private void insert(long key, int slot) {
+        int i = index(key);
+        while (tableKeys[i] != EMPTY) i = (i + 1) & mask;
+        tableKeys[i] = key;
+        tableSlots[i] = slot;
+    }
+
+    /** Linear-probing delete with backward shift, so no tombstones accumulate. */
+    private void remove(long key) {
+        int i = index(key);
+        while (tableKeys[i] != key) {
+            if (tableKeys[i] == EMPTY) return;
+            i = (i + 1) & mask;
+        }
+        int gap = i;
+        for (int j = (gap + 1) & mask; tableKeys[j] != EMPTY; j = (j + 1) & mask) {
+            int home = index(tableKeys[j]);
+            // move j into the gap unless its home lies cyclically in (gap, j]
+            boolean stays = gap <= j ? (gap < home && home <= j) : (gap < home || home <= j);
+            if (!stays) {
+                tableKeys[gap] = tableKeys[j];
+                tableSlots[gap] = tableSlots[j];
+                gap = j;
+            }
+        }
+        tableKeys[gap] = EMPTY;
+    }
+
+    private int index(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    /** Read-only view of one slot's pixels; no copy, the raster reads the slab directly. */
+    private static final class SlotDataBuffer extends DataBuffer {
+        private final IntBuffer slab;
+        private final int base;
+
+        SlotDataBuffer(IntBuffer slab, int base, int length) {
+            super(TYPE_INT, length);
+            this.slab = slab;
+            this.base = base;
+        }
+
+        @Override
+        public int getElem(int bank, int i) {
+            return slab.get(base + i);
+        }
+
+        @Override
+        public void setElem(int bank, int i, int val) {
+            slab.put(base + i, val);
+        }
+    }
+
+    private final class SlotIcon implements Icon {
+        private final BufferedImage image;
+
+        SlotIcon(int slot) {
+            DirectColorModel cm = (DirectColorModel) ColorModel.getRGBdefault();
+            SinglePixelPackedSampleModel sm = new SinglePixelPackedSampleModel(DataBuffer.TYPE_INT, size, size, cm.getMasks());
+            DataBuffer db = new SlotDataBuffer(slabs.get(slot / SLOTS_PER_SLAB), (slot % SLOTS_PER_SLAB) * slotPixels, slotPixels);
+            WritableRaster raster = Raster.createWritableRaster(sm, db, null);
+            this.image = new BufferedImage(cm, raster, false, null);
+        }
+
+        @Override
+        public void paintIcon(Component c, Graphics g, int x, int y) {
+            g.drawImage(image, x, y, null);
+        }
+
+        @Override
+        public int getIconWidth() {
+            return size;
+        }
+
+        @Override
+        public int getIconHeight() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package pccit.finalproject.javaclient;
+
+import java.util.Objects;
+
+/**
+ * Filters for {@code GET /api/users}, applied on the server. Unset (null) filters are not sent.
+ * Username and real name match case-insensitively on a substring; all given filters must match.
+ * Immutable; the {@code with...} methods return a modified copy.
+ */
+public final class UserQuery {
+    /** Every active (not deleted) user, which is what the admin table shows by default. */
+    public static final UserQuery ACTIVE = new UserQuery(null, null, null, Boolean.TRUE);
+
+    private final String username;
+    private final String realName;
+    private final Boolean admin;
+    private final Boolean active;
+
+    private UserQuery(String username, String realName, Boolean admin, Boolean active) {
+        this.username = blankToNull(username);
+        this.realName = blankToNull(realName);
+        this.admin = admin;
+        this.active = active;
+    }
+
+    public UserQuery withUsername(String username) {
+        return new UserQuery(username, realName, admin, active);
+    }
+
+    public UserQuery withRealName(String realName) {
+        return new UserQuery(username, realName, admin, active);
+    }
+
+    public UserQuery withAdmin(Boolean admin) {
+        return new UserQuery(username, realName, admin, active);
+    }
+
+    /** {@code null} returns deleted and active users alike. */
+    public UserQuery withActive(Boolean active) {
+        return new UserQuery(username, realName, admin, active);
+    }
+
+    public String getUsername() { return username; }
+
+    public String getRealName() { return realName; }
+
+    public Boolean getAdmin() { return admin; }
+
+    public Boolean getActive() { return active; }
+
+    /** True if no text filter is set, i.e. the query returns a whole directory. */
+    public boolean isUnfiltered() {
+        return username == null && realName == null;
+    }
+
+    private static String blankToNull(String s) {
+        return s == null || s.trim().isEmpty() ? null : s.trim();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof UserQuery)) return false;
+        UserQuery q = (UserQuery) o;
+        return Objects.equals(username, q.username) && Objects.equals(realName, q.realName)
+                && Objects.equals(admin, q.admin) && Objects.equals(active, q.active);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(username, realName, admin, active);
+    }
+
+    @Override
+    public String toString() {
+        return "UserQuery{username=" + username + ", realName=" + realName + ", admin=" + admin + ", active=" + active + "}";
+    }
+}
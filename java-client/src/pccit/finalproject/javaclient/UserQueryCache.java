@@ -0,0 +1,82 @@
+package pccit.finalproject.javaclient;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Small LRU of recent {@code /api/users} results per backend, so retyping or going back to a previous
+ * search is served locally. Entries expire after {@link #TTL_MILLIS}; call {@link #clear()} whenever users
+ * change (delete, refresh, login/logout). Cached stores are read-only: the table copies rows out of them.
+ * Thread-safe.
+ */
+public class UserQueryCache {
+    private static final long TTL_MILLIS = TimeUnit.SECONDS.toMillis(60);
+
+    private final int maxEntries;
+    private final LinkedHashMap<Key, Cached> entries;
+
+    public UserQueryCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        // access-ordered so the least recently used query is evicted first
+        this.entries = new LinkedHashMap<Key, Cached>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Cached> eldest) {
+                return size() > UserQueryCache.this.maxEntries;
+            }
+        };
+    }
+
+    /** Cached result for {@code query} on backend {@code source}, or null if absent or expired. */
+    public synchronized UserStore get(int source, UserQuery query) {
+        Key key = new Key(source, query);
+        Cached e = entries.get(key);
+        if (e == null) return null;
+        if (System.currentTimeMillis() - e.storedAt > TTL_MILLIS) {
+            entries.remove(key);
+            return null;
+        }
+        return e.users;
+    }
+
+    public synchronized void put(int source, UserQuery query, UserStore users) {
+        entries.put(new Key(source, query), new Cached(users, System.currentTimeMillis()));
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    private static final class Key {
+        final int source;
+        final UserQuery query;
+
+        Key(int source, UserQuery query) {
+            this.source = source;
+            this.query = query;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return source == k.source && query.equals(k.query);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(source, query);
+        }
+    }
+
+    private static final class Cached {
+        final UserStore users;
+        final long storedAt;
+
+        Cached(UserStore users, long storedAt) {
+            this.users = users;
+            this.storedAt = storedAt;
+        }
+    }
+}
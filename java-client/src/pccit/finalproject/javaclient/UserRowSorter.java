@@ -0,0 +1,533 @@
+package pccit.finalproject.javaclient;
+
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Multi-column row sorter for {@link UserTableModel}, built for tables with hundreds of thousands of rows.
+ * <p>
+ * Unlike a {@code TableRowSorter}, which runs the collator on every comparison and re-sorts everything
+ * on every change, this sorter:
+ * <ul>
+ *   <li>caches one collation key (as bytes) per model row and text column, computed once, in parallel,
+ *       and packed into a single array per column;</li>
+ *   <li>sorts large models with {@link Arrays#parallelSort} on a worker thread, over a detached column
+ *       snapshot, and swaps the new order in on the EDT when it is done;</li>
+ *   <li>keeps the order incrementally on inserts (binary insertion, touching only the new rows' keys)
+ *       and deletes (compaction) instead of re-sorting;</li>
+ *   <li>re-sorts lazily (debounced) when stats cells of a sort column are filled in, or only once at the
+ *       end while a background stats fill is still running (see {@link #setHoldStatsResort}).</li>
+ * </ul>
+ * Rows are never filtered, so the view always has as many rows as the model.
+ */
+public class UserRowSorter extends RowSorter<UserTableModel> {
+    /** Models at least this large are sorted off the EDT. */
+    private static final int ASYNC_THRESHOLD = 20_000;
+    /** Inserts up to this size are merged into the current order on the EDT; larger ones trigger a re-sort. */
+    private static final int INCREMENTAL_INSERT_LIMIT = 2_000;
+    private static final int MAX_SORT_KEYS = 3;
+    private static final int RESORT_DELAY_MS = 750;
+
+    private final UserTableModel model;
+    private final int[] sourceRank;
+    private final ThreadLocal<Collator> collators;
+
+    private List<SortKey> sortKeys = Collections.emptyList();
+    private int[] viewToModel; // null means model order
+    private int[] modelToView; // derived lazily from viewToModel
+    // cached collation keys per model row; missing entries are computed on demand
+    private KeyColumn usernameKeys = new KeyColumn(0);
+    private KeyColumn realNameKeys = new KeyColumn(0);
+
+    private int version; // bumped on every structural model change
+    private boolean holdStatsResort;
+    private boolean statsResortDue;
+    private SwingWorker<int[], Void> pending;
+    private final Timer resortTimer;
+
+    public UserRowSorter(UserTableModel model) {
+        this.model = model;
+        final Collator base = Collator.getInstance();
+        base.setStrength(Collator.SECONDARY); // case-insensitive, accent-sensitive
+        // Collator is not thread-safe; parallel key computation gets one clone per thread
+        this.collators = ThreadLocal.withInitial(() -> (Collator) base.clone());
+        this.sourceRank = rankSources(model, base);
+        this.resortTimer = new Timer(RESORT_DELAY_MS, e -> sort());
+        this.resortTimer.setRepeats(false);
+    }
+
+    @Override
+    public UserTableModel getModel() {
+        return model;
+    }
+
+    public boolean isSortable(int column) {
+        return column != UserTableModel.AVATAR_COLUMN && column < model.getColumnCount();
+    }
+
+    /**
+     * While {@code hold} is set, stats arriving for a sorted column do not re-sort (rows would keep jumping
+     * under the viewport, and bring new rows into view whose stats move them again); the order is brought
+     * up to date once when the hold is released, or when the admin clicks a header.
+     */
+    public void setHoldStatsResort(boolean hold) {
+        holdStatsResort = hold;
+        if (!hold && statsResortDue) sort();
+    }
+
+    /** True while a background sort is running. */
+    public boolean isSorting() {
+        return pending != null;
+    }
+
+    @Override
+    public void toggleSortOrder(int column) {
+        if (!isSortable(column)) return;
+        List<SortKey> keys = new ArrayList<>(sortKeys);
+        if (!keys.isEmpty() && keys.get(0).getColumn() == column) {
+            SortOrder flipped = keys.get(0).getSortOrder() == SortOrder.ASCENDING ? SortOrder.DESCENDING : SortOrder.ASCENDING;
+            keys.set(0, new SortKey(column, flipped));
+        } else {
+            keys.removeIf(k -> k.getColumn() == column);
+            keys.add(0, new SortKey(column, SortOrder.ASCENDING));
+        }
+        while (keys.size() > MAX_SORT_KEYS) keys.remove(keys.size() - 1);
+        setSortKeys(keys);
+    }
+
+    @Override
+    public void setSortKeys(List<? extends SortKey> keys) {
+        List<SortKey> valid = new ArrayList<>();
+        if (keys != null) {
+            for (SortKey k : keys) {
+                if (isSortable(k.getColumn()) && k.getSortOrder() != SortOrder.UNSORTED) valid.add(k);
+            }
+        }
+        sortKeys = Collections.unmodifiableList(valid);
+        fireSortOrderChanged();
+        sort();
+    }
+
+    @Override
+    public List<? extends SortKey> getSortKeys() {
+        return sortKeys;
+    }
+
+    @Override
+    public int convertRowIndexToModel(int index) {
+        if (index < 0 || index >= getViewRowCount()) throw new IndexOutOfBoundsException("Invalid index " + index);
+        return viewToModel == null ? index : viewToModel[index];
+    }
+
+    @Override
+    public int convertRowIndexToView(int index) {
+        if (index < 0 || index >= getModelRowCount()) throw new IndexOutOfBoundsException("Invalid index " + index);
+        if (viewToModel == null) return index;
+        if (modelToView == null) {
+            modelToView = new int[viewToModel.length];
+            for (int v = 0; v < viewToModel.length; v++) modelToView[viewToModel[v]] = v;
+        }
+        return modelToView[index];
+    }
+
+    @Override
+    public int getViewRowCount() {
+        return model.getRowCount();
+    }
+
+    @Override
+    public int getModelRowCount() {
+        return model.getRowCount();
+    }
+
+    @Override
+    public void modelStructureChanged() {
+        allRowsChanged();
+    }
+
+    @Override
+    public void allRowsChanged() {
+        version++;
+        usernameKeys = new KeyColumn(0);
+        realNameKeys = new KeyColumn(0);
+        int[] old = viewToModel;
+        viewToModel = null;
+        modelToView = null;
+        if (sortKeys.isEmpty()) return;
+        if (old != null) fireRowSorterChanged(old);
+        sort();
+    }
+
+    @Override
+    public void rowsInserted(int firstRow, int endRow) {
+        version++;
+        int count = endRow - firstRow + 1;
+        usernameKeys.insertMissing(firstRow, count);
+        realNameKeys.insertMissing(firstRow, count);
+        if (viewToModel == null) return;
+
+        int[] next = new int[viewToModel.length + count];
+        for (int v = 0; v < viewToModel.length; v++) {
+            int m = viewToModel[v];
+            next[v] = m >= firstRow ? m + count : m;
+        }
+        modelToView = null;
+        if (count <= INCREMENTAL_INSERT_LIMIT && pending == null && keysCoverModel()) {
+            viewToModel = mergeInserted(Arrays.copyOf(next, viewToModel.length), firstRow, endRow);
+        } else {
+            // too many rows to place on the EDT: show them at the end for now and re-sort in the background
+            for (int i = 0; i < count; i++) next[viewToModel.length + i] = firstRow + i;
+            viewToModel = next;
+            sort();
+        }
+    }
+
+    @Override
+    public void rowsDeleted(int firstRow, int endRow) {
+        version++;
+        int count = endRow - firstRow + 1;
+        usernameKeys.removeRange(firstRow, count);
+        realNameKeys.removeRange(firstRow, count);
+        if (viewToModel == null) return;
+
+        int[] next = new int[viewToModel.length - count];
+        int n = 0;
+        for (int m : viewToModel) {
+            if (m < firstRow) next[n++] = m;
+            else if (m > endRow) next[n++] = m - count;
+        }
+        viewToModel = next;
+        modelToView = null;
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow) {
+        // text cells never change in place; only stats do, see below
+        if (!sortKeys.isEmpty()) resortTimer.restart();
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow, int column) {
+        for (SortKey k : sortKeys) {
+            if (k.getColumn() == column) {
+                if (holdStatsResort) {
+                    statsResortDue = true;
+                    return;
+                }
+                // stats arrive in many small batches; settle before re-sorting
+                resortTimer.restart();
+                return;
+            }
+        }
+    }
+
+    /** Recompute the order for the current keys, synchronously for small models, otherwise in the background. */
+    private void sort() {
+        resortTimer.stop();
+        statsResortDue = false;
+        if (sortKeys.isEmpty()) {
+            int[] old = viewToModel;
+            viewToModel = null;
+            modelToView = null;
+            fireRowSorterChanged(old);
+            return;
+        }
+        if (pending != null) return; // picks up the latest keys/rows when it completes
+
+        final List<SortKey> keys = sortKeys;
+        final int startVersion = version;
+        final RowValues cols = RowValues.of(model.sortColumns());
+        final int n = model.getRowCount();
+        final KeyColumn uk = usesColumn(keys, UserTableModel.USERNAME_COLUMN) ? usernameKeys.copy(n) : null;
+        final KeyColumn rk = usesColumn(keys, UserTableModel.REAL_NAME_COLUMN) ? realNameKeys.copy(n) : null;
+
+        if (n < ASYNC_THRESHOLD) {
+            install(computeOrder(keys, cols, uk, rk, false), uk, rk);
+            return;
+        }
+        pending = new SwingWorker<int[], Void>() {
+            @Override
+            protected int[] doInBackground() {
+                return computeOrder(keys, cols, uk, rk, true);
+            }
+
+            @Override
+            protected void done() {
+                pending = null;
+                int[] order;
+                try {
+                    order = get();
+                } catch (Exception e) {
+                    System.err.println("Sorting failed: " + e.getMessage());
+                    return;
+                }
+                if (keys == sortKeys && startVersion == version) {
+                    install(order, uk, rk);
+                    return;
+                }
+                if (startVersion == version) {
+                    // only the keys changed: the collation keys computed meanwhile are still valid
+                    if (uk != null) usernameKeys = uk;
+                    if (rk != null) realNameKeys = rk;
+                }
+                sort();
+            }
+        };
+        pending.execute();
+    }
+
+    private void install(int[] order, KeyColumn uk, KeyColumn rk) {
+        if (uk != null) usernameKeys = uk;
+        if (rk != null) realNameKeys = rk;
+        int[] old = viewToModel;
+        viewToModel = order;
+        modelToView = null;
+        fireRowSorterChanged(old);
+    }
+
+    /** True if the cached keys of every sorted text column have one entry per model row. */
+    private boolean keysCoverModel() {
+        int n = model.getRowCount();
+        return (!usesColumn(sortKeys, UserTableModel.USERNAME_COLUMN) || usernameKeys.size() == n)
+                && (!usesColumn(sortKeys, UserTableModel.REAL_NAME_COLUMN) || realNameKeys.size() == n);
+    }
+
+    /**
+     * Place rows first..end (already sized into {@code current}'s model space) into the sorted order.
+     * Reads the live model and computes keys only for the new rows (any other row missing a key gets it
+     * when a comparison touches it), then binary-searches each new row's slot: O(k log n) comparisons.
+     */
+    private int[] mergeInserted(int[] current, int first, int end) {
+        RowValues cols = RowValues.of(model);
+        KeyColumn uk = usesColumn(sortKeys, UserTableModel.USERNAME_COLUMN) ? usernameKeys : null;
+        KeyColumn rk = usesColumn(sortKeys, UserTableModel.REAL_NAME_COLUMN) ? realNameKeys : null;
+        List<SortKey> keys = sortKeys;
+        Comparator<Integer> cmp = (a, b) -> {
+            ensureKeys(cols, uk, rk, a);
+            ensureKeys(cols, uk, rk, b);
+            return compareRows(keys, cols, uk, rk, a, b);
+        };
+
+        Integer[] added = new Integer[end - first + 1];
+        for (int i = 0; i < added.length; i++) added[i] = first + i;
+        Arrays.sort(added, cmp);
+
+        int[] merged = new int[current.length + added.length];
+        int from = 0, n = 0;
+        for (int a : added) {
+            // first slot whose row sorts after a; rows never compare equal (model order breaks ties)
+            int lo = from, hi = current.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (cmp.compare(current[mid], a) < 0) lo = mid + 1;
+                else hi = mid;
+            }
+            System.arraycopy(current, from, merged, n, lo - from);
+            n += lo - from;
+            merged[n++] = a;
+            from = lo;
+        }
+        System.arraycopy(current, from, merged, n, current.length - from);
+        return merged;
+    }
+
+    private int[] computeOrder(List<SortKey> keys, RowValues cols, KeyColumn uk, KeyColumn rk, boolean parallel) {
+        fillKeys(uk, cols::username, parallel);
+        fillKeys(rk, cols::realName, parallel);
+
+        int n = cols.size();
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Comparator<Integer> cmp = (a, b) -> compareRows(keys, cols, uk, rk, a, b);
+        if (parallel) Arrays.parallelSort(order, cmp);
+        else Arrays.sort(order, cmp);
+
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++) result[i] = order[i];
+        return result;
+    }
+
+    /** Compute every missing key of a column (in parallel if asked), then pack them in one pass. */
+    private void fillKeys(KeyColumn keys, IntFunction<String> text, boolean parallel) {
+        if (keys == null) return;
+        byte[][] computed = new byte[keys.size()][];
+        IntStream rows = IntStream.range(0, keys.size()).filter(m -> !keys.has(m));
+        (parallel ? rows.parallel() : rows).forEach(m -> computed[m] = collationKey(text.apply(m)));
+        for (int m = 0; m < computed.length; m++) {
+            if (computed[m] != null) keys.set(m, computed[m]);
+        }
+    }
+
+    private void ensureKeys(RowValues cols, KeyColumn uk, KeyColumn rk, int m) {
+        if (uk != null && !uk.has(m)) uk.set(m, collationKey(cols.username(m)));
+        if (rk != null && !rk.has(m)) rk.set(m, collationKey(cols.realName(m)));
+    }
+
+    private byte[] collationKey(String s) {
+        return collators.get().getCollationKey(s == null ? "" : s).toByteArray();
+    }
+
+    private int compareRows(List<SortKey> keys, RowValues cols, KeyColumn uk, KeyColumn rk, int a, int b) {
+        for (SortKey k : keys) {
+            int c;
+            switch (k.getColumn()) {
+                case UserTableModel.USERNAME_COLUMN: c = uk.compare(a, b); break;
+                case UserTableModel.REAL_NAME_COLUMN: c = rk.compare(a, b); break;
+                case UserTableModel.ARTICLES_COLUMN: c = Integer.compare(cols.postCount(a), cols.postCount(b)); break;
+                case UserTableModel.LIKES_COLUMN: c = Integer.compare(cols.likeCount(a), cols.likeCount(b)); break;
+                case UserTableModel.SOURCE_COLUMN: c = Integer.compare(sourceRank[cols.source(a)], sourceRank[cols.source(b)]); break;
+                default: c = 0;
+            }
+            if (c != 0) return k.getSortOrder() == SortOrder.DESCENDING ? -c : c;
+        }
+        return Integer.compare(a, b); // stable: fall back to model order
+    }
+
+    private static boolean usesColumn(List<SortKey> keys, int column) {
+        for (SortKey k : keys) {
+            if (k.getColumn() == column) return true;
+        }
+        return false;
+    }
+
+    private static int[] rankSources(UserTableModel model, Collator collator) {
+        Integer[] idx = new Integer[model.getSourceCount()];
+        for (int i = 0; i < idx.length; i++) idx[i] = i;
+        Arrays.sort(idx, (a, b) -> collator.compare(model.getSourceName(a), model.getSourceName(b)));
+        int[] rank = new int[idx.length];
+        for (int r = 0; r < idx.length; r++) rank[idx[r]] = r;
+        return rank;
+    }
+
+    /** The columns a comparison reads: a detached snapshot for background sorts, the live model on the EDT. */
+    private interface RowValues {
+        int size();
+        String username(int m);
+        String realName(int m);
+        int source(int m);
+        int postCount(int m);
+        int likeCount(int m);
+
+        static RowValues of(UserStore.SortColumns c) {
+            return new RowValues() {
+                public int size() { return c.size(); }
+                public String username(int m) { return c.getUsername(m); }
+                public String realName(int m) { return c.getRealName(m); }
+                public int source(int m) { return c.getSource(m); }
+                public int postCount(int m) { return c.getPostCount(m); }
+                public int likeCount(int m) { return c.getLikeCount(m); }
+            };
+        }
+
+        static RowValues of(UserTableModel model) {
+            return new RowValues() {
+                public int size() { return model.getRowCount(); }
+                public String username(int m) { return model.getUsernameAt(m); }
+                public String realName(int m) { return model.getRealNameAt(m); }
+                public int source(int m) { return model.getSourceAt(m); }
+                public int postCount(int m) { return model.getPostCountAt(m); }
+                public int likeCount(int m) { return model.getLikeCountAt(m); }
+            };
+        }
+    }
+
+    /**
+     * Collation keys of one text column, packed back to back in a single byte array so a large table does
+     * not keep one {@code byte[]} object per row alive. Rows point into the array through offsets/lengths;
+     * a negative length marks a key not computed yet. Keys of deleted rows stay behind until they make up
+     * half the array, then it is compacted.
+     */
+    private static final class KeyColumn {
+        private byte[] bytes = new byte[256];
+        private int used;
+        private int garbage;
+        private int[] offsets;
+        private int[] lengths;
+        private int count;
+
+        KeyColumn(int count) {
+            offsets = new int[Math.max(16, count)];
+            lengths = new int[Math.max(16, count)];
+            Arrays.fill(lengths, 0, count, -1);
+            this.count = count;
+        }
+
+        int size() { return count; }
+
+        boolean has(int row) { return lengths[row] >= 0; }
+
+        void set(int row, byte[] key) {
+            if (lengths[row] > 0) garbage += lengths[row];
+            if (used + key.length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(used + key.length, bytes.length * 2));
+            }
+            System.arraycopy(key, 0, bytes, used, key.length);
+            offsets[row] = used;
+            lengths[row] = key.length;
+            used += key.length;
+        }
+
+        int compare(int a, int b) {
+            return Arrays.compareUnsigned(bytes, offsets[a], offsets[a] + lengths[a], bytes, offsets[b], offsets[b] + lengths[b]);
+        }
+
+        void insertMissing(int at, int n) {
+            at = Math.min(at, count);
+            if (count + n > lengths.length) {
+                int cap = Math.max(count + n, lengths.length + (lengths.length >> 1));
+                offsets = Arrays.copyOf(offsets, cap);
+                lengths = Arrays.copyOf(lengths, cap);
+            }
+            System.arraycopy(offsets, at, offsets, at + n, count - at);
+            System.arraycopy(lengths, at, lengths, at + n, count - at);
+            Arrays.fill(lengths, at, at + n, -1);
+            count += n;
+        }
+
+        void removeRange(int from, int n) {
+            if (from >= count) return;
+            n = Math.min(n, count - from);
+            for (int i = from; i < from + n; i++) garbage += Math.max(lengths[i], 0);
+            System.arraycopy(offsets, from + n, offsets, from, count - from - n);
+            System.arraycopy(lengths, from + n, lengths, from, count - from - n);
+            count -= n;
+            if (garbage > used / 2) compact();
+        }
+
+        /** Detached copy with {@code rows} entries; rows past this column's size start out missing. */
+        KeyColumn copy(int rows) {
+            KeyColumn c = new KeyColumn(rows);
+            int keep = Math.min(rows, count);
+            System.arraycopy(offsets, 0, c.offsets, 0, keep);
+            System.arraycopy(lengths, 0, c.lengths, 0, keep);
+            c.bytes = Arrays.copyOf(bytes, Math.max(used, 256));
+            c.used = used;
+            c.garbage = garbage;
+            return c;
+        }
+
+        private void compact() {
+            byte[] packed = new byte[Math.max(used - garbage, 256)];
+            int n = 0;
+            for (int i = 0; i < count; i++) {
+                if (lengths[i] < 0) continue;
+                System.arraycopy(bytes, offsets[i], packed, n, lengths[i]);
+                offsets[i] = n;
+                n += lengths[i];
+            }
+            bytes = packed;
+            used = n;
+            garbage = 0;
+        }
+    }
+}
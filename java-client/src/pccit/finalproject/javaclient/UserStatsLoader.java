@@ -0,0 +1,252 @@
+package pccit.finalproject.javaclient;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.event.TableModelEvent;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fills the "Articles" / "Likes" columns from {@code /api/users/:id/stats}.
+ * <p>
+ * Rows on screen plus a small prefetch margin (reported by a {@link VisibleRowTracker}) are fetched first,
+ * at visible-row priority, the same way {@link AvatarThumbnailLoader} loads avatars: each row key is
+ * requested at most once at a time, and requests for rows that scroll away are cancelled. Behind them a
+ * background fill walks the whole table in model order as bulk {@link RequestScheduler} work, at most
+ * {@link #FILL_CONCURRENCY} requests at a time, so sorting by activity eventually covers every user.
+ * <p>
+ * Results are cached per row key for {@link #TTL_MILLIS} (so a refresh or search does not refetch them)
+ * and applied to the model in batches from a Swing timer. A failed request is retried after a backoff
+ * while its row is on screen, unless the backend answered 4xx (see {@link FailureBackoff}). All bookkeeping
+ * is EDT-confined.
+ */
+public class UserStatsLoader implements VisibleRowTracker.Listener {
+    /** Rows above and below the viewport whose stats are fetched ahead of scrolling. */
+    public static final int PREFETCH_ROWS = 20;
+    private static final int FILL_CONCURRENCY = 4;
+    private static final long TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final int FLUSH_INTERVAL_MS = 250;
+
+    private final BackendGroup backends;
+    private final UserTableModel model;
+
+    private final Map<Long, Pending> inFlight = new HashMap<>();
+    private int[] visible = new int[0]; // last rows reported by the tracker, re-checked when a retry is due
+    private final FailureBackoff<Long> failed = new FailureBackoff<>(() -> visibleRowsChanged(visible));
+    private final Map<Long, CachedStats> cache = new HashMap<>();
+    // filled by scheduler threads, drained on the EDT by the flush timer
+    private final ConcurrentLinkedQueue<Fetched> completed = new ConcurrentLinkedQueue<>();
+    // background fill: next model row to look at, and how many fill requests are running
+    private int fillCursor;
+    private int filling;
+    private Runnable progressListener;
+
+    public UserStatsLoader(BackendGroup backends, UserTableModel model) {
+        this.backends = backends;
+        this.model = model;
+        model.addTableModelListener(e -> {
+            if (e.getType() == TableModelEvent.DELETE) {
+                fillCursor = Math.min(fillCursor, e.getFirstRow());
+            } else if (e.getType() == TableModelEvent.UPDATE && e.getFirstRow() == 0 && e.getLastRow() == Integer.MAX_VALUE) {
+                fillCursor = 0; // whole table replaced
+            } else if (e.getType() != TableModelEvent.INSERT) {
+                return;
+            }
+            // after the table and sorter have seen the change, as fill() may fire stats updates itself
+            SwingUtilities.invokeLater(() -> {
+                fill();
+                fireProgress();
+            });
+        });
+        new Timer(FLUSH_INTERVAL_MS, e -> flushCompleted()).start();
+    }
+
+    /** Called on the EDT whenever the background fill makes progress or starts over. */
+    public void setProgressListener(Runnable listener) {
+        this.progressListener = listener;
+    }
+
+    /** True once the background fill has been through every row of the table. */
+    public boolean isComplete() {
+        return fillCursor >= model.getRowCount() && filling == 0;
+    }
+
+    /** Rows the background fill has been through so far. */
+    public int filledRows() {
+        return Math.min(fillCursor, model.getRowCount()) - filling;
+    }
+
+    @Override
+    public void visibleRowsChanged(int[] modelRows) {
+        visible = modelRows;
+        long now = System.currentTimeMillis();
+        Set<Long> wanted = new HashSet<>();
+        int min = Integer.MAX_VALUE;
+        int max = -1;
+        for (int row : modelRows) {
+            if (row >= model.getRowCount() || model.hasStatsAt(row)) continue;
+            if (model.getIdAt(row) == UserStore.NO_ID) continue;
+            long key = model.getKeyAt(row);
+            CachedStats cached = cache.get(key);
+            if (cached != null && cached.isFresh(now)) {
+                model.setStatsAt(row, cached.posts, cached.likes);
+                min = Math.min(min, row);
+                max = Math.max(max, row);
+                continue;
+            }
+            wanted.add(key);
+            if (failed.isBlocked(key)) continue;
+            Pending p = inFlight.get(key);
+            if (p != null && p.fill) {
+                // on screen now: don't leave it waiting behind bulk work
+                p.future.cancel(true);
+                inFlight.remove(key);
+                filling--;
+                p = null;
+            }
+            if (p == null) submit(key, false);
+        }
+        // drop work for rows that are no longer on screen; the background fill keeps its own requests
+        for (Iterator<Map.Entry<Long, Pending>> it = inFlight.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Long, Pending> e = it.next();
+            if (!e.getValue().fill && !wanted.contains(e.getKey())) {
+                e.getValue().future.cancel(true);
+                it.remove();
+            }
+        }
+        if (max >= 0) model.fireStatsUpdated(min, max);
+        fill();
+    }
+
+    /** Drop all cached stats and pending requests (e.g. on logout). EDT only. */
+    public void clear() {
+        for (Pending p : inFlight.values()) p.future.cancel(true);
+        inFlight.clear();
+        failed.clear();
+        cache.clear();
+        completed.clear();
+        fillCursor = 0;
+        filling = 0;
+        fireProgress();
+    }
+
+    /** Start background requests for the next rows without stats, up to {@link #FILL_CONCURRENCY}. */
+    private void fill() {
+        long now = System.currentTimeMillis();
+        int min = Integer.MAX_VALUE;
+        int max = -1;
+        while (filling < FILL_CONCURRENCY && fillCursor < model.getRowCount()) {
+            int row = fillCursor++;
+            if (model.hasStatsAt(row) || model.getIdAt(row) == UserStore.NO_ID) continue;
+            long key = model.getKeyAt(row);
+            if (inFlight.containsKey(key) || failed.isBlocked(key)) continue;
+            CachedStats cached = cache.get(key);
+            if (cached != null && cached.isFresh(now)) {
+                model.setStatsAt(row, cached.posts, cached.likes);
+                min = Math.min(min, row);
+                max = Math.max(max, row);
+                continue;
+            }
+            submit(key, true);
+        }
+        if (max >= 0) model.fireStatsUpdated(min, max);
+    }
+
+    private void submit(long key, boolean fill) {
+        AdminClient client = backends.clientFor(UserStore.sourceOfKey(key));
+        String id = Long.toString(UserStore.idOfKey(key));
+        RequestScheduler.Priority priority = fill ? RequestScheduler.Priority.BULK : RequestScheduler.Priority.VISIBLE;
+        Future<?> f = RequestScheduler.shared().submit(client, priority, () -> {
+            AdminClient.UserStats stats = null;
+            boolean permanent = false;
+            try {
+                stats = client.getUserStats(id);
+            } catch (IOException e) {
+                // e.g. user deactivated meanwhile; leave the cells blank
+                if (!Thread.currentThread().isInterrupted()) System.err.println("Failed to load stats for user " + id + ": " + e.getMessage());
+                permanent = AdminClient.isPermanentFailure(e);
+            }
+            completed.add(new Fetched(key, stats, permanent));
+            return null;
+        });
+        inFlight.put(key, new Pending(f, fill));
+        if (fill) filling++;
+    }
+
+    /** EDT: apply everything fetched since the last tick and repaint the touched stats cells in one event. */
+    private void flushCompleted() {
+        if (completed.isEmpty()) return;
+        long now = System.currentTimeMillis();
+        int min = Integer.MAX_VALUE;
+        int max = -1;
+        Fetched f;
+        while ((f = completed.poll()) != null) {
+            Pending p = inFlight.remove(f.key);
+            if (p == null) continue; // cancelled or cleared meanwhile
+            if (p.fill) filling--;
+            if (f.stats == null) {
+                failed.failed(f.key, f.permanent);
+                continue;
+            }
+            failed.succeeded(f.key);
+            cache.put(f.key, new CachedStats(f.stats.total_posts, f.stats.total_likes, now));
+            int row = model.indexOfKey(f.key);
+            if (row < 0) continue;
+            model.setStatsAt(row, f.stats.total_posts, f.stats.total_likes);
+            min = Math.min(min, row);
+            max = Math.max(max, row);
+        }
+        if (max >= 0) model.fireStatsUpdated(min, max);
+        fill();
+        fireProgress();
+    }
+
+    private void fireProgress() {
+        if (progressListener != null) progressListener.run();
+    }
+
+    private static final class Pending {
+        final Future<?> future;
+        final boolean fill; // started by the background fill rather than for a visible row
+
+        Pending(Future<?> future, boolean fill) {
+            this.future = future;
+            this.fill = fill;
+        }
+    }
+
+    private static final class Fetched {
+        final long key;
+        final AdminClient.UserStats stats; // null if the request failed
+        final boolean permanent; // the failure was a 4xx: retrying will not help
+
+        Fetched(long key, AdminClient.UserStats stats, boolean permanent) {
+            this.key = key;
+            this.stats = stats;
+            this.permanent = permanent;
+        }
+    }
+
+    private static final class CachedStats {
+        final int posts;
+        final int likes;
+        final long fetchedAt;
+
+        CachedStats(int posts, int likes, long fetchedAt) {
+            this.posts = posts;
+            this.likes = likes;
+            this.fetchedAt = fetchedAt;
+        }
+
+        boolean isFresh(long now) {
+            return now - fetchedAt < TTL_MILLIS;
+        }
+    }
+}
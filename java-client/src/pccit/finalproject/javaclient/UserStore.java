@@ -0,0 +1,363 @@
+package pccit.finalproject.javaclient;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Columnar, primitive-backed storage for the user table.
+ * <p>
+ * Instead of one {@link User} object (plus five Strings) per row, ids live in a {@code long[]} and
+ * every text column is packed as UTF-8 into a single byte array. {@link User} instances are only
+ * materialised when a caller asks for a row via {@link #userAt(int)}.
+ * <p>
+ * Each row also records its source, the index of the backend it came from in a {@link BackendGroup},
+ * so one store can hold the merged user lists of several backends.
+ * <p>
+ * Not thread-safe: fill it on a worker thread, then hand it to the EDT (as {@link UserTableModel} does).
+ */
+public class UserStore {
+    /** Marker stored for rows whose id was missing in the backend response. */
+    public static final long NO_ID = Long.MIN_VALUE;
+    /** Largest id a row can hold; ids share the 64-bit {@link #key row key} with the source. */
+    public static final long MAX_ID = (1L << 48) - 2;
+    /** Returned by {@link #parseId} for an id that is not a number or out of range; such rows are skipped, never stored. */
+    private static final long BAD_ID = Long.MIN_VALUE + 1;
+    // low 48 bits of a row key; all ones is reserved for rows without an id
+    private static final long ID_BITS = 0xFFFF_FFFF_FFFFL;
+    /** Sources are stored as unsigned bytes. */
+    public static final int MAX_SOURCES = 256;
+
+    /** Marker for a stats cell that has not been loaded yet. */
+    public static final int UNKNOWN = -1;
+
+    private long[] ids = new long[16];
+    private byte[] sources = new byte[16];
+    // activity stats, filled in progressively by UserStatsLoader
+    private int[] postCounts = new int[16];
+    private int[] likeCounts = new int[16];
+    // lazily built row-key -> row index, dropped whenever rows are removed
+    private KeyIndex keyIndex;
+    private int size;
+    private final Utf8Column usernames = new Utf8Column();
+    private final Utf8Column realNames = new Utf8Column();
+    private final Utf8Column displayNames = new Utf8Column();
+    private final Utf8Column avatarUrls = new Utf8Column();
+
+    public int size() { return size; }
+
+    /** Append a user; returns false (and stores nothing) if its id is not a number in 0..{@link #MAX_ID}. */
+    public boolean add(User u) {
+        return add(u, 0);
+    }
+
+    public boolean add(User u, int source) {
+        long id = parseId(u.getId());
+        if (id == BAD_ID) return false;
+        addRow(id, u.getUsername(), u.getRealName(), u.getDisplayName(), u.getAvatarUrl(), source);
+        return true;
+    }
+
+    /** Append every row of another store, tagging them with the given source. */
+    public void appendAll(UserStore other, int source) {
+        ensureCapacity(size + other.size);
+        for (int i = 0; i < other.size; i++) {
+            addRow(other.ids[i], other.usernames.get(i), other.realNames.get(i),
+                    other.displayNames.get(i), other.avatarUrls.get(i), source);
+            postCounts[size - 1] = other.postCounts[i];
+            likeCounts[size - 1] = other.likeCounts[i];
+        }
+    }
+
+    private void addRow(long id, String username, String realName, String displayName, String avatarUrl, int source) {
+        if (source < 0 || source >= MAX_SOURCES) throw new IllegalArgumentException("source " + source);
+        ensureCapacity(size + 1);
+        ids[size] = id;
+        sources[size] = (byte) source;
+        postCounts[size] = UNKNOWN;
+        likeCounts[size] = UNKNOWN;
+        if (keyIndex != null) keyIndex.put(key(source, id), size);
+        usernames.add(username);
+        realNames.add(realName);
+        displayNames.add(displayName);
+        avatarUrls.add(avatarUrl);
+        size++;
+    }
+
+    public void addAll(List<User> users) {
+        if (users == null) return;
+        ensureCapacity(size + users.size());
+        for (User u : users) add(u);
+    }
+
+    public void remove(int row) {
+        checkRow(row);
+        System.arraycopy(ids, row + 1, ids, row, size - row - 1);
+        System.arraycopy(sources, row + 1, sources, row, size - row - 1);
+        System.arraycopy(postCounts, row + 1, postCounts, row, size - row - 1);
+        System.arraycopy(likeCounts, row + 1, likeCounts, row, size - row - 1);
+        keyIndex = null;
+        usernames.remove(row);
+        realNames.remove(row);
+        displayNames.remove(row);
+        avatarUrls.remove(row);
+        size--;
+    }
+
+    public void clear() {
+        ids = new long[16];
+        sources = new byte[16];
+        postCounts = new int[16];
+        likeCounts = new int[16];
+        keyIndex = null;
+        size = 0;
+        usernames.clear();
+        realNames.clear();
+        displayNames.clear();
+        avatarUrls.clear();
+    }
+
+    public long getId(int row) { checkRow(row); return ids[row]; }
+    public int getSource(int row) { checkRow(row); return sources[row] & 0xFF; }
+    /** Active article count, or {@link #UNKNOWN} until stats are loaded. */
+    public int getPostCount(int row) { checkRow(row); return postCounts[row]; }
+    /** Likes received on the user's articles, or {@link #UNKNOWN} until stats are loaded. */
+    public int getLikeCount(int row) { checkRow(row); return likeCounts[row]; }
+
+    public void setStats(int row, int posts, int likes) {
+        checkRow(row);
+        postCounts[row] = posts;
+        likeCounts[row] = likes;
+    }
+    public String getUsername(int row) { checkRow(row); return usernames.get(row); }
+    public String getRealName(int row) { checkRow(row); return realNames.get(row); }
+    public String getDisplayName(int row) { checkRow(row); return displayNames.get(row); }
+    public String getAvatarUrl(int row) { checkRow(row); return avatarUrls.get(row); }
+
+    /** Returns the model row holding the given id, or -1. Linear scan over the primitive id column. */
+    public int indexOfId(long id) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Row key unique across sources: the source in the top 16 bits, the id in the low 48. Rows without
+     * an id share one reserved key per source that no real id maps to.
+     */
+    public long getKey(int row) {
+        checkRow(row);
+        return key(sources[row] & 0xFF, ids[row]);
+    }
+
+    /** Returns the model row with the given {@link #getKey row key}, or -1. */
+    public int indexOfKey(long key) {
+        if (keyIndex == null) {
+            keyIndex = new KeyIndex(size);
+            for (int i = 0; i < size; i++) keyIndex.put(key(sources[i] & 0xFF, ids[i]), i);
+        }
+        return keyIndex.get(key);
+    }
+
+    public static long key(int source, long id) {
+        if (id == NO_ID) return ((long) source << 48) | ID_BITS;
+        if (id < 0 || id > MAX_ID) throw new IllegalArgumentException("id " + id);
+        return ((long) source << 48) | id;
+    }
+
+    public static int sourceOfKey(long key) {
+        return (int) (key >>> 48);
+    }
+
+    public static long idOfKey(long key) {
+        long id = key & ID_BITS;
+        return id == ID_BITS ? NO_ID : id;
+    }
+
+    /** Creates a detached {@link User} view of a row; changes to it are not written back. */
+    public User userAt(int row) {
+        checkRow(row);
+        long id = ids[row];
+        return new User(id == NO_ID ? null : Long.toString(id),
+                usernames.get(row), displayNames.get(row), avatarUrls.get(row), realNames.get(row));
+    }
+
+    private void ensureCapacity(int min) {
+        if (min > ids.length) {
+            int cap = Math.max(min, ids.length + (ids.length >> 1));
+            ids = Arrays.copyOf(ids, cap);
+            sources = Arrays.copyOf(sources, cap);
+            postCounts = Arrays.copyOf(postCounts, cap);
+            likeCounts = Arrays.copyOf(likeCounts, cap);
+        }
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) throw new IndexOutOfBoundsException("row " + row + ", size " + size);
+    }
+
+    private static long parseId(String id) {
+        if (id == null || id.trim().isEmpty()) return NO_ID;
+        try {
+            long parsed = Long.parseLong(id.trim());
+            return parsed < 0 || parsed > MAX_ID ? BAD_ID : parsed;
+        } catch (NumberFormatException e) {
+            // the backend only issues integer ids; skip the row rather than fail the whole listing
+            return BAD_ID;
+        }
+    }
+
+    /**
+     * Detached copy of the columns the table sorter compares (usernames, real names, source, stats),
+     * safe to read from a background thread while the EDT keeps mutating this store.
+     */
+    public SortColumns sortColumns() {
+        return new SortColumns(size, usernames.copy(), realNames.copy(),
+                Arrays.copyOf(sources, size), Arrays.copyOf(postCounts, size), Arrays.copyOf(likeCounts, size));
+    }
+
+    /** Read-only column snapshot produced by {@link #sortColumns()}. */
+    public static final class SortColumns {
+        private final int size;
+        private final Utf8Column usernames;
+        private final Utf8Column realNames;
+        private final byte[] sources;
+        private final int[] postCounts;
+        private final int[] likeCounts;
+
+        private SortColumns(int size, Utf8Column usernames, Utf8Column realNames,
+                            byte[] sources, int[] postCounts, int[] likeCounts) {
+            this.size = size;
+            this.usernames = usernames;
+            this.realNames = realNames;
+            this.sources = sources;
+            this.postCounts = postCounts;
+            this.likeCounts = likeCounts;
+        }
+
+        public int size() { return size; }
+        public String getUsername(int row) { return usernames.get(row); }
+        public String getRealName(int row) { return realNames.get(row); }
+        public int getSource(int row) { return sources[row] & 0xFF; }
+        public int getPostCount(int row) { return postCounts[row]; }
+        public int getLikeCount(int row) { return likeCounts[row]; }
+    }
+
+    /** Open-addressing long -> int map (linear probing), so key lookups need no boxing. */
+    private static final class KeyIndex {
+        private long[] keys;
+        private int[] rows;
+        private boolean[] used;
+        private int count;
+
+        KeyIndex(int expected) {
+            int cap = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+            keys = new long[cap];
+            rows = new int[cap];
+            used = new boolean[cap];
+        }
+
+        void put(long key, int row) {
+            if ((count + 1) * 2 > keys.length) grow();
+            int i = slot(key);
+            while (used[i] && keys[i] != key) i = (i + 1) & (keys.length - 1);
+            if (!used[i]) count++;
+            used[i] = true;
+            keys[i] = key;
+            rows[i] = row;
+        }
+
+        int get(long key) {
+            int i = slot(key);
+            while (used[i]) {
+                if (keys[i] == key) return rows[i];
+                i = (i + 1) & (keys.length - 1);
+            }
+            return -1;
+        }
+
+        private int slot(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & (keys.length - 1);
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldRows = rows;
+            boolean[] oldUsed = used;
+            keys = new long[oldKeys.length * 2];
+            rows = new int[oldKeys.length * 2];
+            used = new boolean[oldKeys.length * 2];
+            count = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i]) put(oldKeys[i], oldRows[i]);
+            }
+        }
+    }
+
+    /** Strings packed back to back as UTF-8; row i starts at offsets[i], a negative length marks null. */
+    private static final class Utf8Column {
+        private byte[] bytes = new byte[256];
+        private int used;
+        private int[] offsets = new int[16];
+        private int[] lengths = new int[16];
+        private int count;
+
+        void add(String s) {
+            if (count == lengths.length) {
+                int cap = lengths.length + (lengths.length >> 1);
+                lengths = Arrays.copyOf(lengths, cap);
+                offsets = Arrays.copyOf(offsets, cap);
+            }
+            offsets[count] = used;
+            if (s == null) {
+                lengths[count++] = -1;
+                return;
+            }
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            if (used + b.length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(used + b.length, bytes.length * 2));
+            }
+            System.arraycopy(b, 0, bytes, used, b.length);
+            used += b.length;
+            lengths[count++] = b.length;
+        }
+
+        String get(int i) {
+            int len = lengths[i];
+            if (len < 0) return null;
+            return new String(bytes, offsets[i], len, StandardCharsets.UTF_8);
+        }
+
+        void remove(int i) {
+            int len = Math.max(lengths[i], 0);
+            int start = offsets[i];
+            System.arraycopy(bytes, start + len, bytes, start, used - start - len);
+            used -= len;
+            for (int j = i + 1; j < count; j++) {
+                offsets[j - 1] = offsets[j] - len;
+                lengths[j - 1] = lengths[j];
+            }
+            count--;
+        }
+
+        Utf8Column copy() {
+            Utf8Column c = new Utf8Column();
+            c.bytes = Arrays.copyOf(bytes, used);
+            c.used = used;
+            c.offsets = Arrays.copyOf(offsets, count);
+            c.lengths = Arrays.copyOf(lengths, count);
+            c.count = count;
+            return c;
+        }
+
+        void clear() {
+            bytes = new byte[256];
+            used = 0;
+            offsets = new int[16];
+            lengths = new int[16];
+            count = 0;
+        }
+    }
+}
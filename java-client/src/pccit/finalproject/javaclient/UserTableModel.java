@@ -1,33 +1,116 @@
 package pccit.finalproject.javaclient;
 
+import javax.swing.event.TableModelEvent;
 import javax.swing.table.AbstractTableModel;
-import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Table model over a columnar {@link UserStore}. Cell values are read straight from the store's
+ * columns; {@link User} objects are only created when a caller asks for a whole row.
+ * <p>
+ * When constructed with more than one source name, rows from several backends are merged into the
+ * same store and an extra "Source" column tags each row with the backend it came from.
+ */
 public class UserTableModel extends AbstractTableModel {
-    private final String[] columns = {"Username", "Real Name"};
-    private final List<User> users = new ArrayList<>();
+    public static final int AVATAR_COLUMN = 0;
+    public static final int USERNAME_COLUMN = 1;
+    public static final int REAL_NAME_COLUMN = 2;
+    public static final int ARTICLES_COLUMN = 3;
+    public static final int LIKES_COLUMN = 4;
+    /** Only present when the model merges several sources. */
+    public static final int SOURCE_COLUMN = 5;
+
+    private final String[] columns;
+    private final String[] sourceNames;
+    private UserStore store = new UserStore();
+
+    public UserTableModel() {
+        this(new String[] {"default"});
+    }
+
+    public UserTableModel(String[] sourceNames) {
+        this.sourceNames = sourceNames.clone();
+        this.columns = sourceNames.length > 1
+                ? new String[] {"Avatar", "Username", "Real Name", "Articles", "Likes", "Source"}
+                : new String[] {"Avatar", "Username", "Real Name", "Articles", "Likes"};
+    }
 
     public void setUsers(List<User> newUsers) {
-        users.clear();
-        if (newUsers != null) users.addAll(newUsers);
+        UserStore fresh = new UserStore();
+        fresh.addAll(newUsers);
+        setStore(fresh);
+    }
+
+    /** Replace the backing store (typically one filled off the EDT by {@link AdminClient#listUsersInto}). */
+    public void setStore(UserStore newStore) {
+        store = (newStore != null) ? newStore : new UserStore();
         fireTableDataChanged();
     }
 
+    /** Append one backend's users to the merged view as soon as they arrive. */
+    public void appendStore(UserStore part, int source) {
+        if (part == null || part.size() == 0) return;
+        int first = store.size();
+        store.appendAll(part, source);
+        fireTableRowsInserted(first, store.size() - 1);
+    }
+
     public void removeUser(int row) {
-        if (row >= 0 && row < users.size()) {
-            users.remove(row);
+        if (row >= 0 && row < store.size()) {
+            store.remove(row);
             fireTableRowsDeleted(row, row);
         }
     }
 
+    /** Lazily materialises a {@link User} view of the given model row. */
     public User getUserAt(int row) {
-        if (row >= 0 && row < users.size()) return users.get(row);
+        if (row >= 0 && row < store.size()) return store.userAt(row);
         return null;
     }
 
+    /** Primitive id of a model row ({@link UserStore#NO_ID} if the backend sent none). */
+    public long getIdAt(int row) { return store.getId(row); }
+
+    /** Index of the backend (in the {@link BackendGroup}) that owns a model row. */
+    public int getSourceAt(int row) { return store.getSource(row); }
+
+    public String getSourceName(int source) { return sourceNames[source]; }
+
+    /** Row key unique across backends, see {@link UserStore#getKey}. */
+    public long getKeyAt(int row) { return store.getKey(row); }
+
+    public String getAvatarUrlAt(int row) { return store.getAvatarUrl(row); }
+
+    public String getUsernameAt(int row) { return store.getUsername(row); }
+
+    public String getRealNameAt(int row) { return store.getRealName(row); }
+
+    /** Raw stats of a model row, {@link UserStore#UNKNOWN} until loaded. */
+    public int getPostCountAt(int row) { return store.getPostCount(row); }
+
+    public int getLikeCountAt(int row) { return store.getLikeCount(row); }
+
+    /** Background-safe snapshot of the sortable columns, see {@link UserStore#sortColumns()}. */
+    public UserStore.SortColumns sortColumns() { return store.sortColumns(); }
+
+    public int getSourceCount() { return sourceNames.length; }
+
+    public boolean hasStatsAt(int row) { return store.getPostCount(row) != UserStore.UNKNOWN; }
+
+    /** Store stats for a row without firing; callers batch the repaint via {@link #fireStatsUpdated}. */
+    public void setStatsAt(int row, int posts, int likes) { store.setStats(row, posts, likes); }
+
+    /** Repaint only the stats cells of a row range. */
+    public void fireStatsUpdated(int firstRow, int lastRow) {
+        fireTableChanged(new TableModelEvent(this, firstRow, lastRow, ARTICLES_COLUMN));
+        fireTableChanged(new TableModelEvent(this, firstRow, lastRow, LIKES_COLUMN));
+    }
+
+    /** Model row of the given row key, or -1. */
+    public int indexOfKey(long key) { return store.indexOfKey(key); }
+
     @Override
-    public int getRowCount() { return users.size(); }
+    public int getRowCount() { return store.size(); }
 
     @Override
     public int getColumnCount() { return columns.length; }
@@ -35,13 +118,31 @@ public class UserTableModel extends AbstractTableModel {
     @Override
     public String getColumnName(int column) { return columns[column]; }
 
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+        switch (columnIndex) {
+            case AVATAR_COLUMN: return Long.class;
+            case ARTICLES_COLUMN:
+            case LIKES_COLUMN:
+                return Integer.class;
+            default: return String.class;
+        }
+    }
+
     @Override
     public Object getValueAt(int rowIndex, int columnIndex) {
-        User u = users.get(rowIndex);
         switch (columnIndex) {
-            case 0: return u.getUsername();
-            case 1: return u.getRealName(); // Show real name instead of display name
+            case AVATAR_COLUMN: return store.getKey(rowIndex); // rendered by AvatarCellRenderer
+            case USERNAME_COLUMN: return store.getUsername(rowIndex);
+            case REAL_NAME_COLUMN: return store.getRealName(rowIndex); // Show real name instead of display name
+            case ARTICLES_COLUMN: return statValue(store.getPostCount(rowIndex));
+            case LIKES_COLUMN: return statValue(store.getLikeCount(rowIndex));
+            case SOURCE_COLUMN: return sourceNames[store.getSource(rowIndex)];
             default: return "";
         }
     }
+
+    private static Integer statValue(int v) {
+        return v == UserStore.UNKNOWN ? null : v; // blank cell while loading
+    }
 }
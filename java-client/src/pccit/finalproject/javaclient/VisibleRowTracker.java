@@ -0,0 +1,89 @@
+package pccit.finalproject.javaclient;
+
+import javax.swing.JTable;
+import javax.swing.JViewport;
+import javax.swing.RowSorter;
+import javax.swing.SwingUtilities;
+import javax.swing.event.TableModelEvent;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Watches the viewport of a table inside a {@code JScrollPane} and reports which <em>model</em> rows are
+ * currently on screen. Scroll, resize and model events are coalesced into a single callback per EDT
+ * turn, so listeners can (re)prioritise background fetches without being flooded while the admin drags
+ * the scrollbar.
+ */
+public class VisibleRowTracker {
+    /** Receives the visible model rows, top to bottom. Always called on the EDT. */
+    public interface Listener {
+        void visibleRowsChanged(int[] modelRows);
+    }
+
+    private final JTable table;
+    private final List<Listener> listeners = new ArrayList<>();
+    private final List<Integer> margins = new ArrayList<>();
+    private boolean updatePending;
+
+    public VisibleRowTracker(JTable table, JViewport viewport) {
+        this.table = table;
+        viewport.addChangeListener(e -> scheduleUpdate());
+        table.getModel().addTableModelListener(e -> {
+            // single-cell repaints (e.g. a thumbnail arriving) must not re-trigger a scan
+            if (e.getType() == TableModelEvent.UPDATE && e.getColumn() != TableModelEvent.ALL_COLUMNS) return;
+            scheduleUpdate();
+        });
+        // a re-sort puts different model rows under the viewport
+        if (table.getRowSorter() != null) table.getRowSorter().addRowSorterListener(e -> scheduleUpdate());
+        table.addPropertyChangeListener("rowSorter", e -> {
+            if (e.getNewValue() != null) ((RowSorter<?>) e.getNewValue()).addRowSorterListener(ev -> scheduleUpdate());
+            scheduleUpdate();
+        });
+    }
+
+    public void addListener(Listener l) {
+        addListener(l, 0);
+    }
+
+    /** Also report {@code margin} rows above and below the viewport, for listeners that prefetch. */
+    public void addListener(Listener l, int margin) {
+        listeners.add(l);
+        margins.add(margin);
+    }
+
+    /** Request a recomputation on the next EDT turn (e.g. after the sort order changed). */
+    public void scheduleUpdate() {
+        if (updatePending) return;
+        updatePending = true;
+        SwingUtilities.invokeLater(() -> {
+            updatePending = false;
+            int[] rows = visibleModelRows();
+            for (int i = 0; i < listeners.size(); i++) {
+                int margin = margins.get(i);
+                listeners.get(i).visibleRowsChanged(margin == 0 ? rows : visibleModelRows(margin));
+            }
+        });
+    }
+
+    /** Model indexes of the rows intersecting the visible rectangle of the table. */
+    public int[] visibleModelRows() {
+        return visibleModelRows(0);
+    }
+
+    /** Model indexes of the visible rows plus up to {@code margin} rows on either side, top to bottom. */
+    public int[] visibleModelRows(int margin) {
+        Rectangle vis = table.getVisibleRect();
+        if (vis.isEmpty() || table.getRowCount() == 0) return new int[0];
+        int first = table.rowAtPoint(new Point(0, vis.y));
+        int last = table.rowAtPoint(new Point(0, vis.y + vis.height - 1));
+        if (first < 0) first = 0;
+        if (last < 0) last = table.getRowCount() - 1;
+        first = Math.max(0, first - margin);
+        last = Math.min(table.getRowCount() - 1, last + margin);
+        int[] rows = new int[last - first + 1];
+        for (int i = 0; i < rows.length; i++) rows[i] = table.convertRowIndexToModel(first + i);
+        return rows;
+    }
+}
@@ -0,0 +1,116 @@
+package pccit.finalproject.javaclient;
+
+import static pccit.finalproject.javaclient.Checks.check;
+import static pccit.finalproject.javaclient.Checks.equal;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/** {@link AdminClient#fetchBytesFromUrl(String, int)}: size caps, format sniffing, redirects and resuming a broken body. */
+public class AdminClientDownloadTest {
+    private static final int CAP = 1024 * 1024;
+
+    static void run() throws Exception {
+        byte[] resumable = image(200_000);
+        List<String> ranges = new ArrayList<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/ok", ex -> send(ex, 200, image(5000)));
+        server.createContext("/exact", ex -> send(ex, 200, image(CAP)));
+        server.createContext("/declared-big", ex -> {
+            ex.sendResponseHeaders(200, 50_000_000);
+            ex.close();
+        });
+        server.createContext("/streamed-big", ex -> {
+            ex.sendResponseHeaders(200, 0); // chunked: no length to check up front
+            try (OutputStream out = ex.getResponseBody()) {
+                out.write(image(100));
+                for (int i = 0; i < 64; i++) out.write(new byte[64 * 1024]);
+            } catch (IOException e) {
+                // the client hangs up at the cap
+            }
+        });
+        server.createContext("/html", ex -> send(ex, 200, "<html>error page</html>".getBytes(StandardCharsets.US_ASCII)));
+        server.createContext("/redirect-same", ex -> redirect(ex, "/ok"));
+        server.createContext("/redirect-other", ex -> redirect(ex, "http://example.com/avatar.png"));
+        server.createContext("/redirect-loop", ex -> redirect(ex, "/redirect-loop"));
+        server.createContext("/resume", ex -> {
+            String range = ex.getRequestHeaders().getFirst("Range");
+            ex.getResponseHeaders().add("Accept-Ranges", "bytes");
+            ex.getResponseHeaders().add("ETag", "\"v1\"");
+            if (range == null) {
+                ex.sendResponseHeaders(200, resumable.length);
+                ex.getResponseBody().write(resumable, 0, 80_000);
+                ex.getResponseBody().flush();
+                throw new IOException("drop the connection mid-body");
+            }
+            synchronized (ranges) {
+                ranges.add(range + " " + ex.getRequestHeaders().getFirst("If-Range"));
+            }
+            int from = Integer.parseInt(range.substring("bytes=".length(), range.length() - 1));
+            ex.getResponseHeaders().add("Content-Range", "bytes " + from + "-" + (resumable.length - 1) + "/" + resumable.length);
+            ex.sendResponseHeaders(206, resumable.length - from);
+            ex.getResponseBody().write(resumable, from, resumable.length - from);
+            ex.close();
+        });
+        server.start();
+        try {
+            AdminClient client = new AdminClient("http://127.0.0.1:" + server.getAddress().getPort());
+
+            equal(5000, client.fetchBytesFromUrl("/ok", CAP).length, "plain download");
+            equal(CAP, client.fetchBytesFromUrl("/exact", CAP).length, "a body of exactly the cap is accepted");
+            rejected(client, "/declared-big", "limit", "declared length over the cap is refused before reading");
+            rejected(client, "/streamed-big", "limit", "streamed body is cut off at the cap");
+            rejected(client, "/html", "image", "a body that is not an image is refused");
+
+            equal(5000, client.fetchBytesFromUrl("/redirect-same", CAP).length, "same-origin redirect is followed");
+            rejected(client, "/redirect-other", "redirect", "cross-origin redirect is refused");
+            rejected(client, "/redirect-loop", "redirect", "redirect loops stop");
+
+            byte[] resumed = client.fetchBytesFromUrl("/resume", CAP);
+            check(Arrays.equals(resumable, resumed), "broken body is resumed to the exact original bytes");
+            equal(Arrays.asList("bytes=80000- \"v1\""), ranges, "resume asks for the rest, guarded by the ETag");
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static void rejected(AdminClient client, String path, String messagePart, String what) {
+        try {
+            client.fetchBytesFromUrl(path, CAP);
+            check(false, what + ": download succeeded");
+        } catch (IOException e) {
+            String message = String.valueOf(e.getMessage()).toLowerCase();
+            check(message.contains(messagePart), what + ": " + e.getMessage());
+        }
+    }
+
+    /** A body that starts like a JPEG file. */
+    private static byte[] image(int size) {
+        byte[] b = new byte[size];
+        Arrays.fill(b, (byte) 7);
+        b[0] = (byte) 0xFF;
+        b[1] = (byte) 0xD8;
+        b[2] = (byte) 0xFF;
+        return b;
+    }
+
+    private static void send(HttpExchange ex, int code, byte[] body) throws IOException {
+        ex.sendResponseHeaders(code, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void redirect(HttpExchange ex, String location) throws IOException {
+        ex.getResponseHeaders().add("Location", location);
+        send(ex, 302, new byte[0]);
+    }
+}
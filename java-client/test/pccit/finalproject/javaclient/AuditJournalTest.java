@@ -0,0 +1,180 @@
+package pccit.finalproject.javaclient;
+
+import static pccit.finalproject.javaclient.Checks.check;
+import static pccit.finalproject.javaclient.Checks.equal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * {@link AuditJournal} / {@link AuditJournalReader}: torn-tail recovery, skipping damaged records, hash-chain
+ * verification, field truncation and a journal that cannot be opened.
+ */
+public class AuditJournalTest {
+    static void run() throws Exception {
+        Path dir = Files.createTempDirectory("audit-journal-test");
+        try {
+            roundTrip(dir.resolve("round-trip"));
+            tornTail(dir.resolve("torn"));
+            corruptRecordInTheMiddle(dir.resolve("corrupt"));
+            editedRecordBreaksChain(dir.resolve("edited"));
+            unreadableLengthSetsFileAside(dir.resolve("bad-length"));
+            longFieldCutOnCharBoundary(dir.resolve("long-field"));
+            openFailureIsReported(dir);
+        } finally {
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+
+    private static void roundTrip(Path journal) throws IOException {
+        write(journal, 5);
+        List<AuditJournal.Entry> entries = AuditJournalReader.query(journal, 0, Long.MAX_VALUE, null);
+        equal(5, entries.size(), "records read back");
+        equal(1L, entries.get(0).seq, "sequence starts at 1");
+        equal("target-4", entries.get(4).target, "fields round-trip");
+        check(AuditJournalReader.verify(journal).isIntact(), "fresh journal verifies");
+
+        write(journal, 2);
+        equal(7L, AuditJournalReader.verify(journal).records, "reopening continues the file");
+        check(AuditJournalReader.verify(journal).isIntact(), "chain continues across reopen");
+    }
+
+    /** A half-written last record is copied aside in full and cut off; the records before it survive. */
+    private static void tornTail(Path journal) throws IOException {
+        write(journal, 10);
+        long size = Files.size(journal);
+        byte[] partial = new byte[40];
+        partial[3] = 100; // a plausible length, then the file ends
+        partial[39] = 7;
+        try (OutputStream out = Files.newOutputStream(journal, StandardOpenOption.APPEND)) {
+            out.write(partial);
+        }
+        AuditJournalReader.Verification torn = AuditJournalReader.verify(journal);
+        equal(10L, torn.records, "records before the torn tail");
+        equal(40L, torn.trailingBytes, "torn tail is reported");
+
+        write(journal, 1);
+        check(AuditJournalReader.verify(journal).isIntact(), "reopen recovers the torn tail");
+        equal(11L, AuditJournalReader.verify(journal).records, "append continues after the last good record");
+        List<Path> aside = siblings(journal, ".torn-");
+        equal(1, aside.size(), "torn bytes are set aside");
+        if (!aside.isEmpty()) equal(40L, Files.size(aside.get(0)), "the whole tail is set aside");
+        check(Files.size(journal) > size, "journal kept its records");
+    }
+
+    /** A record damaged in place (length intact) is skipped; the records after it are kept and still read. */
+    private static void corruptRecordInTheMiddle(Path journal) throws IOException {
+        write(journal, 10);
+        long recordSize = Files.size(journal) / 10;
+        flipByte(journal, 3 * recordSize + AuditJournal.HEADER_SIZE + 2);
+
+        AuditJournalReader.Verification v = AuditJournalReader.verify(journal);
+        equal(9L, v.records, "records around the damaged one");
+        equal(1L, v.corruptRecords, "damaged record is counted");
+        equal(4L, v.firstBrokenSeq, "chain is reported broken at the damaged record");
+        check(!v.isIntact(), "damaged journal does not verify");
+
+        long before = Files.size(journal);
+        write(journal, 1);
+        check(Files.size(journal) > before, "reopen does not truncate valid records after the damage");
+        equal(10L, AuditJournalReader.verify(journal).records, "new record is appended after them");
+        equal(0, siblings(journal, ".torn-").size() + siblings(journal, ".corrupt-").size(), "nothing set aside");
+    }
+
+    /** Editing a record and fixing up its CRC passes the CRC check but not the hash chain. */
+    private static void editedRecordBreaksChain(Path journal) throws IOException {
+        write(journal, 6);
+        long recordSize = Files.size(journal) / 6;
+        long start = 2 * recordSize;
+        flipByte(journal, start + AuditJournal.HEADER_SIZE + 2);
+        try (FileChannel ch = FileChannel.open(journal, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer record = ByteBuffer.allocate((int) recordSize - AuditJournal.TRAILER_SIZE);
+            ch.read(record, start);
+            CRC32 crc = new CRC32();
+            crc.update(record.array());
+            ch.write(ByteBuffer.allocate(4).putInt(0, (int) crc.getValue()), start + recordSize - AuditJournal.TRAILER_SIZE);
+        }
+        AuditJournalReader.Verification v = AuditJournalReader.verify(journal);
+        equal(6L, v.records, "edited record still passes its CRC");
+        equal(0L, v.corruptRecords, "edited record is not a corrupt one");
+        equal(3L, v.firstBrokenSeq, "chain breaks at the edited record");
+    }
+
+    /** Damage that cannot be skipped never truncates: the file is moved aside whole and a new journal starts. */
+    private static void unreadableLengthSetsFileAside(Path journal) throws IOException {
+        write(journal, 8);
+        long size = Files.size(journal);
+        long recordSize = size / 8;
+        flipByte(journal, 4 * recordSize); // top byte of the length field
+
+        AuditJournalReader.Verification v = AuditJournalReader.verify(journal);
+        equal(4L, v.records, "records before the unreadable one");
+        equal(size - 4 * recordSize, v.trailingBytes, "everything after it is unreadable");
+
+        write(journal, 1);
+        List<Path> aside = siblings(journal, ".corrupt-");
+        equal(1, aside.size(), "damaged journal is set aside");
+        if (!aside.isEmpty()) equal(size, Files.size(aside.get(0)), "set aside untruncated");
+        equal(1L, AuditJournalReader.verify(journal).records, "new journal started");
+        check(AuditJournalReader.verify(journal).isIntact(), "new journal verifies");
+    }
+
+    private static void longFieldCutOnCharBoundary(Path journal) throws IOException {
+        StringBuilder detail = new StringBuilder("ab");
+        for (int i = 0; i < 2000; i++) detail.append('\u20AC'); // 3 bytes each: the limit falls inside one
+        AuditJournal j = new AuditJournal(journal);
+        j.record(AuditJournal.ACTION_DELETE_USER, "admin", "local", "t", detail.toString(), true);
+        j.close();
+        String stored = AuditJournalReader.query(journal, 0, Long.MAX_VALUE, null).get(0).detail;
+        equal(detail.substring(0, 2 + 1364), stored, "cut before the character that does not fit");
+    }
+
+    private static void openFailureIsReported(Path dir) throws Exception {
+        Path notADir = Files.createFile(dir.resolve("plain-file"));
+        AuditJournal j = new AuditJournal(notADir.resolve("audit.journal"));
+        for (int i = 0; i < 100 && j.getFailure() == null; i++) Thread.sleep(20);
+        check(j.getFailure() != null, "failure to open is reported");
+        j.record(AuditJournal.ACTION_LOGIN, "admin", "local", "admin", "", true); // dropped, not queued
+        j.close();
+        check(!Files.exists(notADir.resolve("audit.journal")), "nothing written");
+    }
+
+    private static void write(Path journal, int records) {
+        AuditJournal j = new AuditJournal(journal);
+        for (int i = 0; i < records; i++) {
+            j.record(AuditJournal.ACTION_DELETE_USER, "admin", "local", "target-" + i, "", true);
+        }
+        j.close();
+    }
+
+    private static void flipByte(Path journal, long offset) throws IOException {
+        try (FileChannel ch = FileChannel.open(journal, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            ch.read(b, offset);
+            b.flip();
+            b.put(0, (byte) (b.get(0) ^ 0x40));
+            ch.write(b, offset);
+        }
+    }
+
+    private static List<Path> siblings(Path journal, String infix) throws IOException {
+        List<Path> found = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(journal.getParent(), journal.getFileName() + infix + "*")) {
+            for (Path p : files) found.add(p);
+        }
+        return found;
+    }
+}
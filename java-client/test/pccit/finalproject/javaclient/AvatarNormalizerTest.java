@@ -0,0 +1,160 @@
+package pccit.finalproject.javaclient;
+
+import static pccit.finalproject.javaclient.Checks.check;
+import static pccit.finalproject.javaclient.Checks.equal;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+/** {@link AvatarNormalizer}: size and dimension thresholds, output format choice, EXIF orientation and ICC profiles. */
+public class AvatarNormalizerTest {
+    static void run() throws Exception {
+        underBothThresholds();
+        overDimension();
+        overSizeOnly();
+        transparency();
+        noGain();
+        unreadable();
+        orientation();
+        colourProfile();
+    }
+
+    private static void underBothThresholds() throws IOException {
+        byte[] png = png(solid(200, 100, 0xFF336699, BufferedImage.TYPE_INT_RGB));
+        AvatarNormalizer.Result r = new AvatarNormalizer(png.length, 200, 0.85f).process(png);
+        equal(AvatarNormalizer.Outcome.UNDER_THRESHOLD, r.outcome, "exactly at both limits is left alone");
+        equal(200, r.width, "width read from the header");
+        equal(null, r.encoded, "nothing is re-encoded");
+    }
+
+    private static void overDimension() throws IOException {
+        byte[] jpeg = jpeg(noise(3000, 2000, false), 0.9f);
+        AvatarNormalizer.Result r = new AvatarNormalizer(Integer.MAX_VALUE, 512, 0.85f).process(jpeg);
+        equal(AvatarNormalizer.Outcome.SHRINK, r.outcome, "too wide is shrunk even if small enough in bytes");
+        equal(512, r.newWidth, "longest side fits the limit");
+        equal(341, r.newHeight, "aspect ratio kept");
+        equal("image/jpeg", r.contentType(), "opaque image becomes JPEG");
+        check(r.encoded.length < jpeg.length, "result is smaller");
+        equal(512, ImageIO.read(new ByteArrayInputStream(r.encoded)).getWidth(), "encoded bytes decode at the new size");
+    }
+
+    private static void overSizeOnly() throws IOException {
+        byte[] png = png(noise(300, 300, false));
+        AvatarNormalizer.Result r = new AvatarNormalizer(16 * 1024, 512, 0.85f).process(png);
+        equal(AvatarNormalizer.Outcome.SHRINK, r.outcome, "too many bytes is re-encoded");
+        equal(300, r.newWidth, "small dimensions are not upscaled or cut");
+        equal("jpeg", r.newFormat, "noisy opaque PNG becomes JPEG");
+    }
+
+    private static void transparency() throws IOException {
+        BufferedImage img = solid(1024, 1024, 0xFF00AA00, BufferedImage.TYPE_INT_ARGB);
+        img.setRGB(10, 10, 0x00000000);
+        AvatarNormalizer.Result r = new AvatarNormalizer(Integer.MAX_VALUE, 256, 0.85f).process(png(img));
+        equal("png", r.newFormat, "transparent image stays PNG");
+
+        BufferedImage opaque = noise(1024, 1024, true);
+        AvatarNormalizer.Result o = new AvatarNormalizer(Integer.MAX_VALUE, 256, 0.85f).process(png(opaque));
+        equal("jpeg", o.newFormat, "an all-opaque alpha channel is encoded as JPEG");
+    }
+
+    private static void noGain() throws IOException {
+        byte[] tiny = jpeg(noise(64, 64, false), 0.2f);
+        AvatarNormalizer.Result r = new AvatarNormalizer(1, 512, 0.95f).process(tiny);
+        equal(AvatarNormalizer.Outcome.NO_GAIN, r.outcome, "a bigger re-encoding is not uploaded");
+    }
+
+    private static void unreadable() throws IOException {
+        byte[] html = "<html>not an image</html>".getBytes(StandardCharsets.US_ASCII);
+        equal(AvatarNormalizer.Outcome.UNREADABLE, new AvatarNormalizer(1, 1, 0.85f).process(html).outcome, "unknown format");
+    }
+
+    /** EXIF orientation 6 (rotate 90 clockwise) is baked into the pixels. */
+    private static void orientation() throws IOException {
+        BufferedImage img = solid(1200, 800, 0xFF00FF00, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 100; y++) {
+            for (int x = 0; x < 100; x++) img.setRGB(x, y, 0xFFFF0000);
+        }
+        byte[] tiff = {'M', 'M', 0, 42, 0, 0, 0, 8, 0, 1, 0x01, 0x12, 0, 3, 0, 0, 0, 1, 0, 6, 0, 0, 0, 0, 0, 0};
+        byte[] exif = concat("Exif\0\0".getBytes(StandardCharsets.ISO_8859_1), tiff);
+        byte[] jpeg = withSegment(jpeg(img, 0.9f), 0xE1, exif);
+
+        equal(6, AvatarNormalizer.Tags.read(jpeg).orientation, "orientation read from APP1");
+        AvatarNormalizer.Result r = new AvatarNormalizer(Integer.MAX_VALUE, 512, 0.85f).process(jpeg);
+        equal(341, r.newWidth, "rotated width");
+        equal(512, r.newHeight, "rotated height");
+        BufferedImage out = ImageIO.read(new ByteArrayInputStream(r.encoded));
+        int topRight = out.getRGB(out.getWidth() - 5, 5);
+        check(((topRight >> 16) & 0xFF) > 200 && ((topRight >> 8) & 0xFF) < 60, "top-left corner rotated to the top right");
+
+        equal(1, AvatarNormalizer.Tags.read(jpeg(img, 0.9f)).orientation, "no EXIF means upright");
+    }
+
+    private static void colourProfile() throws IOException {
+        byte[] icc = concat("ICC_PROFILE\0".getBytes(StandardCharsets.ISO_8859_1), new byte[] {1, 1, 0, 0, 0, 0});
+        byte[] jpeg = withSegment(jpeg(noise(1000, 1000, false), 0.9f), 0xE2, icc);
+        AvatarNormalizer.Result r = new AvatarNormalizer(Integer.MAX_VALUE, 512, 0.85f).process(jpeg);
+        equal(AvatarNormalizer.Outcome.SKIPPED, r.outcome, "image with an ICC profile is left alone");
+        check(AvatarNormalizer.Tags.read(withSegment(jpeg(noise(8, 8, false), 0.9f), 0xE2, icc)).iccProfile, "ICC profile detected");
+    }
+
+    private static BufferedImage solid(int w, int h, int argb, int type) {
+        BufferedImage img = new BufferedImage(w, h, type);
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) img.setRGB(x, y, argb);
+        }
+        return img;
+    }
+
+    private static BufferedImage noise(int w, int h, boolean alphaChannel) {
+        Random random = new Random(7);
+        BufferedImage img = new BufferedImage(w, h, alphaChannel ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) img.setRGB(x, y, 0xFF000000 | random.nextInt(0x1000000));
+        }
+        return img;
+    }
+
+    private static byte[] png(BufferedImage img) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(img, "png", out);
+        return out.toByteArray();
+    }
+
+    private static byte[] jpeg(BufferedImage img, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(img, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    /** Insert an APPn segment right after the JPEG SOI marker. */
+    private static byte[] withSegment(byte[] jpeg, int marker, byte[] body) {
+        int len = body.length + 2;
+        byte[] header = {(byte) 0xFF, (byte) marker, (byte) (len >> 8), (byte) len};
+        return concat(concat(new byte[] {jpeg[0], jpeg[1]}, concat(header, body)), Arrays.copyOfRange(jpeg, 2, jpeg.length));
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] c = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, c, a.length, b.length);
+        return c;
+    }
+}
@@ -0,0 +1,47 @@
+package pccit.finalproject.javaclient;
+
+import java.util.Objects;
+
+/**
+ * Minimal assertion helpers for the plain-Java checks in this folder (the project has no build tool, so
+ * there is no test framework on the classpath). Failures are printed and counted rather than thrown, so
+ * one run reports every broken check; {@link RunAll} turns the count into the exit status.
+ */
+final class Checks {
+    private static int passed;
+    private static int failed;
+
+    private Checks() {}
+
+    static void check(boolean condition, String what) {
+        if (condition) {
+            passed++;
+        } else {
+            failed++;
+            System.err.println("FAIL: " + what);
+        }
+    }
+
+    static void equal(Object expected, Object actual, String what) {
+        check(Objects.equals(expected, actual), what + ": expected <" + expected + "> but was <" + actual + ">");
+    }
+
+    static void fails(Class<? extends Throwable> type, ThrowingRunnable body, String what) {
+        try {
+            body.run();
+            check(false, what + ": expected " + type.getSimpleName());
+        } catch (Throwable t) {
+            check(type.isInstance(t), what + ": expected " + type.getSimpleName() + " but got " + t);
+        }
+    }
+
+    /** Print the totals and exit non-zero if anything failed. */
+    static void exit() {
+        System.out.println(passed + " checks passed, " + failed + " failed");
+        System.exit(failed == 0 ? 0 : 1);
+    }
+
+    interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,67 @@
+package pccit.finalproject.javaclient;
+
+import static pccit.finalproject.javaclient.Checks.check;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/** {@link FailureBackoff} and {@link AdminClient#isPermanentFailure}: which failed loads are retried. */
+public class FailureBackoffTest {
+    static void run() throws Exception {
+        classification();
+        backoff();
+    }
+
+    private static void classification() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/missing", ex -> send(ex, 404, "not found"));
+        server.createContext("/busy", ex -> send(ex, 503, "try later"));
+        server.createContext("/html", ex -> send(ex, 200, "<html>error page</html>"));
+        server.start();
+        try {
+            AdminClient client = new AdminClient("http://127.0.0.1:" + server.getAddress().getPort());
+            check(permanent(client, "/missing"), "a 4xx response is permanent");
+            check(!permanent(client, "/busy"), "a 5xx response is retried");
+            check(permanent(client, "/html"), "a body that is not an image is permanent");
+        } finally {
+            server.stop(0);
+        }
+        check(!AdminClient.isPermanentFailure(new IOException("Connection reset")), "a network error is retried");
+    }
+
+    private static void backoff() {
+        FailureBackoff<String> failures = new FailureBackoff<>(() -> {});
+        check(!failures.isBlocked("a"), "unknown key is not blocked");
+        failures.failed("a", false);
+        failures.failed("b", true);
+        check(failures.isBlocked("a"), "transient failure blocks during the backoff");
+        check(failures.isBlocked("b"), "permanent failure blocks");
+        failures.succeeded("a");
+        check(!failures.isBlocked("a") && !failures.hasFailed("a"), "success forgets the failure");
+        failures.clear();
+        check(!failures.isBlocked("b"), "clear() forgets permanent failures too");
+    }
+
+    private static boolean permanent(AdminClient client, String path) {
+        try {
+            client.fetchBytesFromUrl(path);
+            check(false, path + ": download succeeded");
+            return false;
+        } catch (IOException e) {
+            return AdminClient.isPermanentFailure(e);
+        }
+    }
+
+    private static void send(HttpExchange ex, int code, String body) throws IOException {
+        byte[] b = body.getBytes(StandardCharsets.US_ASCII);
+        ex.sendResponseHeaders(code, b.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(b);
+        }
+    }
+}
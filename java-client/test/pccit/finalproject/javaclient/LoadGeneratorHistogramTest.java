@@ -0,0 +1,73 @@
+package pccit.finalproject.javaclient;
+
+import static pccit.finalproject.javaclient.Checks.check;
+import static pccit.finalproject.javaclient.Checks.equal;
+
+import java.util.Random;
+
+/** {@link LoadGenerator.Histogram}: exact small values, bucket upper bounds within 1/64 of the value, percentile ranks. */
+public class LoadGeneratorHistogramTest {
+    static void run() {
+        emptyHistogram();
+        smallValuesAreExact();
+        bucketBounds();
+        percentileRanks();
+    }
+
+    private static void emptyHistogram() {
+        LoadGenerator.Histogram h = new LoadGenerator.Histogram();
+        equal(0L, h.count(), "empty count");
+        equal(0L, h.percentile(99), "empty percentile");
+    }
+
+    private static void smallValuesAreExact() {
+        for (long v = 0; v < 128; v++) {
+            equal(v, boundOf(v), "value below 128 has its own bucket");
+        }
+        LoadGenerator.Histogram h = new LoadGenerator.Histogram();
+        h.record(-5);
+        equal(0L, h.percentile(100), "negative latencies count as 0");
+    }
+
+    /** The reported bound of a value's bucket is never below it and at most 1/64 above it. */
+    private static void bucketBounds() {
+        Random random = new Random(42);
+        boolean within = true;
+        String firstBad = null;
+        for (int i = 0; i < 20_000; i++) {
+            long v = 128 + (random.nextLong() >>> (1 + random.nextInt(62)));
+            long bound = boundOf(v);
+            if (bound < v || bound - v > v / 64) {
+                within = false;
+                if (firstBad == null) firstBad = v + " -> " + bound;
+            }
+        }
+        check(within, "bucket bound within 1/64 above the value, first bad: " + firstBad);
+        for (int shift = 7; shift < 62; shift++) {
+            long edge = 1L << shift;
+            check(boundOf(edge - 1) < edge, "bucket below 2^" + shift + " ends before it");
+            check(boundOf(edge) >= edge, "2^" + shift + " starts a bucket");
+        }
+        check(boundOf(Long.MAX_VALUE / 4) >= Long.MAX_VALUE / 4, "huge values still fit");
+    }
+
+    private static void percentileRanks() {
+        LoadGenerator.Histogram h = new LoadGenerator.Histogram();
+        for (int v = 1; v <= 100; v++) h.record(v);
+        equal(100L, h.count(), "count");
+        equal(50L, h.percentile(50), "p50 of 1..100");
+        equal(99L, h.percentile(99), "p99 of 1..100");
+        equal(100L, h.percentile(100), "p100 is the max");
+        h.record(1_000_000);
+        equal(1_000_000L, h.max(), "max is exact");
+        equal(1_000_000L, h.percentile(100), "percentile never exceeds the max");
+    }
+
+    /** Upper bound of the bucket holding {@code v}: with a larger second value, p50 lands in v's bucket. */
+    private static long boundOf(long v) {
+        LoadGenerator.Histogram h = new LoadGenerator.Histogram();
+        h.record(v);
+        h.record(Long.MAX_VALUE);
+        return h.percentile(50);
+    }
+}
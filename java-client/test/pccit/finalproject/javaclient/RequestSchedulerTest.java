@@ -0,0 +1,133 @@
+package pccit.finalproject.javaclient;
+
+import static pccit.finalproject.javaclient.Checks.check;
+import static pccit.finalproject.javaclient.Checks.equal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** {@link RequestScheduler}: per-priority concurrency caps, priority order, cancellation and the token bucket. */
+public class RequestSchedulerTest {
+    private static final String HOST = "http://test";
+
+    static void run() throws Exception {
+        caps();
+        interactiveSkipsTheQueue();
+        cancelQueued();
+        tokenBucket();
+        debtIsBounded();
+    }
+
+    /** With 4 slots per host: interactive may use 4, visible 3, bulk 2. */
+    private static void caps() throws Exception {
+        equal(4, peakConcurrency(RequestScheduler.Priority.INTERACTIVE), "interactive cap");
+        equal(3, peakConcurrency(RequestScheduler.Priority.VISIBLE), "visible cap");
+        equal(2, peakConcurrency(RequestScheduler.Priority.BULK), "bulk cap");
+    }
+
+    private static int peakConcurrency(RequestScheduler.Priority priority) throws Exception {
+        RequestScheduler scheduler = new RequestScheduler(4, 10_000);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        List<CompletableFuture<Void>> jobs = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            jobs.add(scheduler.submit(HOST, priority, () -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(30);
+                running.decrementAndGet();
+                return null;
+            }));
+        }
+        awaitAll(jobs, 10);
+        return peak.get();
+    }
+
+    /** Bulk work filling its share never delays an interactive request, which also runs before queued bulk jobs. */
+    private static void interactiveSkipsTheQueue() throws Exception {
+        RequestScheduler scheduler = new RequestScheduler(4, 10_000);
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<Void>> bulk = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            bulk.add(scheduler.submit(HOST, RequestScheduler.Priority.BULK, () -> {
+                release.await();
+                return null;
+            }));
+        }
+        Thread.sleep(50);
+        equal(4, scheduler.queued(HOST), "bulk jobs past the cap wait");
+        String result = scheduler.submit(HOST, RequestScheduler.Priority.INTERACTIVE, () -> "now").get(2, TimeUnit.SECONDS);
+        equal("now", result, "interactive request ran while bulk slots were busy");
+        release.countDown();
+        awaitAll(bulk, 5);
+        equal(0, scheduler.queued(HOST), "queue drained");
+    }
+
+    private static void cancelQueued() throws Exception {
+        RequestScheduler scheduler = new RequestScheduler(1, 10_000);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> blocker = scheduler.submit(HOST, RequestScheduler.Priority.BULK, () -> {
+            release.await();
+            return null;
+        });
+        AtomicInteger ran = new AtomicInteger();
+        CompletableFuture<Void> queued = scheduler.submit(HOST, RequestScheduler.Priority.BULK, () -> {
+            ran.incrementAndGet();
+            return null;
+        });
+        Thread.sleep(50);
+        check(queued.cancel(true), "queued job can be cancelled");
+        equal(0, scheduler.queued(HOST), "cancelled job leaves the queue");
+        release.countDown();
+        blocker.get(2, TimeUnit.SECONDS);
+        Thread.sleep(50);
+        equal(0, ran.get(), "cancelled job never runs");
+        Checks.fails(CancellationException.class, queued::get, "cancelled future reports cancellation");
+    }
+
+    /** 20 requests/s with a burst of 10: 20 bulk jobs need about half a second. */
+    private static void tokenBucket() throws Exception {
+        RequestScheduler scheduler = new RequestScheduler(100, 20);
+        long start = System.nanoTime();
+        List<CompletableFuture<Long>> jobs = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            jobs.add(scheduler.submit(HOST, RequestScheduler.Priority.BULK, () -> System.nanoTime() - start));
+        }
+        long immediate = 0;
+        long last = 0;
+        for (CompletableFuture<Long> f : jobs) {
+            long at = TimeUnit.NANOSECONDS.toMillis(f.get(5, TimeUnit.SECONDS));
+            if (at < 100) immediate++;
+            last = Math.max(last, at);
+        }
+        check(immediate >= 10 && immediate <= 12, "a full bucket lets one burst through at once, got " + immediate);
+        check(last >= 400 && last < 2000, "the rest is paced at the rate, last job at " + last + " ms");
+    }
+
+    /** Interactive requests are never throttled, but the debt they leave is at most one burst. */
+    private static void debtIsBounded() throws Exception {
+        RequestScheduler scheduler = new RequestScheduler(100, 10); // burst 5
+        List<CompletableFuture<Void>> clicks = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            clicks.add(scheduler.submit(HOST, RequestScheduler.Priority.INTERACTIVE, () -> null));
+        }
+        awaitAll(clicks, 2);
+        check(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000, "interactive requests bypass the rate limit");
+
+        long bulkStart = System.nanoTime();
+        scheduler.submit(HOST, RequestScheduler.Priority.BULK, () -> null).get(5, TimeUnit.SECONDS);
+        long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - bulkStart);
+        // from -5 tokens, one token is 0.6 s away; unbounded debt (-95) would be 9.6 s
+        check(waited >= 300 && waited < 1500, "bulk job after a click storm waits one burst, waited " + waited + " ms");
+    }
+
+    private static void awaitAll(List<? extends CompletableFuture<?>> jobs, int seconds) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        for (CompletableFuture<?> f : jobs) f.get(Math.max(1, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+}
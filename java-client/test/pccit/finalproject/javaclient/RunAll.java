@@ -0,0 +1,24 @@
+package pccit.finalproject.javaclient;
+
+/**
+ * Runs every check in this folder; it is the only entry point, the check classes just expose {@code run()}.
+ * From {@code java-client}:
+ * <pre>
+ *   javac -encoding UTF-8 -cp "lib/*" -d out/checks $(find src test -name '*.java')
+ *   java -cp "out/checks:lib/*" pccit.finalproject.javaclient.RunAll
+ * </pre>
+ */
+public class RunAll {
+    public static void main(String[] args) throws Exception {
+        UserStoreTest.run();
+        UserStoreSourcesTest.run();
+        UserStoreStatsTest.run();
+        RequestSchedulerTest.run();
+        AuditJournalTest.run();
+        LoadGeneratorHistogramTest.run();
+        AvatarNormalizerTest.run();
+        AdminClientDownloadTest.run();
+        FailureBackoffTest.run();
+        Checks.exit();
+    }
+}
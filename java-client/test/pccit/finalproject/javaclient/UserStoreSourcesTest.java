@@ -0,0 +1,62 @@
+package pccit.finalproject.javaclient;
+
+import static pccit.finalproject.javaclient.Checks.check;
+import static pccit.finalproject.javaclient.Checks.equal;
+import static pccit.finalproject.javaclient.Checks.fails;
+
+/** {@link UserStore} with several backends: rows carry their source, and row keys stay unique and findable. */
+public class UserStoreSourcesTest {
+    static void run() {
+        appendAll();
+        keyIndex();
+        reservedKey();
+    }
+
+    private static void appendAll() {
+        UserStore part = new UserStore();
+        part.add(new User("7", "ana", null, null, null));
+        part.add(new User(null, "no-id", null, null, null));
+
+        UserStore merged = new UserStore();
+        merged.add(new User("1", "first", null, null, null), 0);
+        merged.appendAll(part, 3);
+        equal(3, merged.size(), "appendAll size");
+        equal("ana", merged.getUsername(1), "appended username");
+        equal(3, merged.getSource(1), "appended rows carry the new source");
+        equal(UserStore.NO_ID, merged.getId(2), "missing id survives the append");
+        fails(IllegalArgumentException.class, () -> merged.add(new User("2", "x", null, null, null), UserStore.MAX_SOURCES),
+                "source beyond MAX_SOURCES");
+    }
+
+    private static void keyIndex() {
+        long key = UserStore.key(5, 123456789L);
+        equal(5, UserStore.sourceOfKey(key), "source of key");
+        equal(123456789L, UserStore.idOfKey(key), "id of key");
+
+        UserStore store = new UserStore();
+        for (int i = 0; i < 1000; i++) store.add(new User(Integer.toString(i), "u" + i, null, null, null), i % 3);
+        equal(500, store.indexOfKey(UserStore.key(500 % 3, 500)), "lookup builds the index");
+        equal(-1, store.indexOfKey(UserStore.key(1, 500)), "same id under another source is a different key");
+
+        store.add(new User("5000", "late", null, null, null), 2);
+        equal(1000, store.indexOfKey(UserStore.key(2, 5000)), "rows appended after the index was built are found");
+
+        store.remove(10);
+        equal(-1, store.indexOfKey(UserStore.key(10 % 3, 10)), "removed row is gone");
+        equal(10, store.indexOfKey(UserStore.key(11 % 3, 11)), "rows after a removal shift down");
+        equal(UserStore.key(2, 5000), store.getKey(store.size() - 1), "key of the last row");
+    }
+
+    private static void reservedKey() {
+        UserStore store = new UserStore();
+        store.add(new User(null, "no-id", null, null, null));
+        store.add(new User("0", "zero", null, null, null));
+        store.add(new User(Long.toString(UserStore.MAX_ID), "max", null, null, null));
+        check(store.getKey(0) != store.getKey(1), "missing id and id 0 get different keys");
+        equal(1, store.indexOfKey(UserStore.key(0, 0)), "id 0 is found by its own key");
+        equal(UserStore.NO_ID, UserStore.idOfKey(store.getKey(0)), "reserved key reads back as NO_ID");
+        equal(UserStore.MAX_ID, UserStore.idOfKey(store.getKey(2)), "MAX_ID round-trips");
+        check(store.getKey(0) != store.getKey(2), "MAX_ID does not reach the reserved key");
+        fails(IllegalArgumentException.class, () -> UserStore.key(0, -1), "key of a negative id");
+    }
+}
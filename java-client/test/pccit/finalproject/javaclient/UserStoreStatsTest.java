@@ -0,0 +1,26 @@
+package pccit.finalproject.javaclient;
+
+import static pccit.finalproject.javaclient.Checks.equal;
+import static pccit.finalproject.javaclient.Checks.fails;
+
+/** {@link UserStore} activity stats: unknown until set, kept per row across removals and appends. */
+public class UserStoreStatsTest {
+    static void run() {
+        UserStore store = new UserStore();
+        for (int i = 0; i < 5; i++) store.add(new User(Integer.toString(i), "u" + i, null, null, null));
+        equal(UserStore.UNKNOWN, store.getPostCount(0), "posts start unknown");
+        equal(UserStore.UNKNOWN, store.getLikeCount(0), "likes start unknown");
+
+        store.setStats(3, 12, 40);
+        equal(12, store.getPostCount(3), "posts");
+        equal(40, store.getLikeCount(3), "likes");
+        store.remove(1);
+        equal(12, store.getPostCount(2), "stats move with their row on remove");
+        equal(UserStore.UNKNOWN, store.getPostCount(3), "neighbouring row stays unknown");
+
+        UserStore merged = new UserStore();
+        merged.appendAll(store, 1);
+        equal(40, merged.getLikeCount(2), "appendAll keeps loaded stats");
+        fails(IndexOutOfBoundsException.class, () -> store.setStats(4, 1, 1), "stats beyond the last row");
+    }
+}
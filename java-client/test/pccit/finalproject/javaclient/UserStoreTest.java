@@ -0,0 +1,53 @@
+package pccit.finalproject.javaclient;
+
+import static pccit.finalproject.javaclient.Checks.check;
+import static pccit.finalproject.javaclient.Checks.equal;
+
+/** {@link UserStore}: rows survive the columnar round-trip, and rows with unusable ids are skipped. */
+public class UserStoreTest {
+    static void run() {
+        roundTrip();
+        skipsBadIds();
+        remove();
+    }
+
+    private static void roundTrip() {
+        UserStore store = new UserStore();
+        check(store.add(new User("7", "ana", "Ana", "http://x/a.png", "Ana Ñúñez 🙂")), "numeric id is stored");
+        check(store.add(new User(null, null, null, null, null)), "row without an id is stored");
+        equal(2, store.size(), "size");
+
+        User u = store.userAt(0);
+        equal("7", u.getId(), "id");
+        equal("ana", u.getUsername(), "username");
+        equal("Ana", u.getDisplayName(), "display name");
+        equal("http://x/a.png", u.getAvatarUrl(), "avatar url");
+        equal("Ana Ñúñez 🙂", u.getRealName(), "non-ASCII real name survives UTF-8 packing");
+
+        User empty = store.userAt(1);
+        equal(null, empty.getId(), "missing id reads back as null");
+        equal(UserStore.NO_ID, store.getId(1), "missing id is stored as NO_ID");
+        equal(null, empty.getUsername(), "null text stays null, not empty");
+    }
+
+    private static void skipsBadIds() {
+        UserStore store = new UserStore();
+        check(!store.add(new User("abc", "bad", null, null, null)), "non-numeric id is rejected");
+        check(!store.add(new User(Long.toString(Long.MIN_VALUE), "marker", null, null, null)), "id equal to the NO_ID marker is rejected");
+        check(!store.add(new User("-1", "negative", null, null, null)), "negative id is rejected");
+        check(!store.add(new User(Long.toString(UserStore.MAX_ID + 1), "huge", null, null, null)), "id above MAX_ID is rejected");
+        check(store.add(new User(" 42 ", "padded", null, null, null)), "id with surrounding blanks is accepted");
+        equal(1, store.size(), "rejected rows are not stored");
+        equal(42L, store.getId(0), "padded id");
+    }
+
+    private static void remove() {
+        UserStore store = new UserStore();
+        for (int i = 0; i < 100; i++) store.add(new User(Integer.toString(i), "u" + i, null, null, null));
+        store.remove(10);
+        equal(99, store.size(), "size after remove");
+        equal("u11", store.getUsername(10), "later rows shift down");
+        equal(-1, store.indexOfId(10), "removed id is gone");
+        equal(10, store.indexOfId(11), "id lookup follows the shift");
+    }
+}